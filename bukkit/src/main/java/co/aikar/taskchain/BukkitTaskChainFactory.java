@@ -56,10 +56,12 @@ public class BukkitTaskChainFactory extends TaskChainFactory {
     private static class BukkitGameInterface implements GameInterface {
         private final Plugin plugin;
         private final AsyncQueue asyncQueue;
+        private final MainThreadQueue mainThreadQueue = new MainThreadQueue();
 
         BukkitGameInterface(Plugin plugin, AsyncQueue asyncQueue) {
             this.plugin = plugin;
             this.asyncQueue = asyncQueue;
+            Bukkit.getScheduler().runTaskTimer(plugin, mainThreadQueue::tick, 1, 1);
         }
 
         @Override
@@ -74,7 +76,12 @@ public class BukkitTaskChainFactory extends TaskChainFactory {
 
         @Override
         public void postToMain(Runnable run) {
-            Bukkit.getScheduler().scheduleSyncDelayedTask(plugin, run);
+            mainThreadQueue.post(run);
+        }
+
+        @Override
+        public MainThreadQueue getMainThreadQueue() {
+            return mainThreadQueue;
         }
 
         @Override
@@ -82,6 +89,12 @@ public class BukkitTaskChainFactory extends TaskChainFactory {
             Bukkit.getScheduler().scheduleSyncDelayedTask(plugin, run, ticks);
         }
 
+        @Override
+        public boolean registerTickHook(Runnable hook) {
+            mainThreadQueue.setTickHook(hook);
+            return true;
+        }
+
         @Override
         public void registerShutdownHandler(TaskChainFactory factory) {
             Bukkit.getPluginManager().registerEvents(new Listener() {
@@ -89,6 +102,7 @@ public class BukkitTaskChainFactory extends TaskChainFactory {
                 public void onPluginDisable(PluginDisableEvent event) {
                     if (event.getPlugin().equals(plugin)) {
                         factory.shutdown(60, TimeUnit.SECONDS);
+                        mainThreadQueue.shutdown();
                     }
                 }
             }, plugin);
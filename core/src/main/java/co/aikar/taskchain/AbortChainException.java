@@ -24,4 +24,15 @@
 package co.aikar.taskchain;
 
 @SuppressWarnings("PublicInnerClass,WeakerAccess")
-public class AbortChainException extends Exception {}
+public class AbortChainException extends Exception {
+    /**
+     * Thrown by {@link TaskChain#abort()}. Aborting only unwinds to the chain, so it has no stack trace to fill in
+     */
+    static final AbortChainException INSTANCE = new AbortChainException(false);
+
+    public AbortChainException() {}
+
+    private AbortChainException(boolean writableStackTrace) {
+        super(null, null, false, writableStackTrace);
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An async queue with a fixed set of workers, each with its own queue. Tasks posted with an affinity always go
+ * to the same worker, so state kept by that worker (warm caches, connections, buffers) is reused.
+ *
+ * A worker that has nothing to do may steal queued tasks from a worker that is saturated, so one worker does not
+ * hold up tasks while others are idle. A worker is saturated once it is running a task with at least the steal
+ * threshold of tasks queued behind it. Below that, tasks wait for their own worker, keeping what it has cached.
+ *
+ * Use with {@link TaskChainFactory#setAffinityQueue(AffinityAsyncQueue)} to run the async tasks of a chain,
+ * or of chains with the same {@link TaskChain#setAffinity(Object)} key, on the same worker.
+ */
+@SuppressWarnings("WeakerAccess")
+public class AffinityAsyncQueue implements AsyncQueue {
+    private static final AtomicInteger threadId = new AtomicInteger();
+    private static final int DEFAULT_STEAL_THRESHOLD = 4;
+    private final Worker[] workers;
+    private final int stealThreshold;
+    private final AtomicInteger nextWorker = new AtomicInteger();
+    private volatile boolean shutdown = false;
+
+    public AffinityAsyncQueue() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public AffinityAsyncQueue(int threads) {
+        this(threads, DEFAULT_STEAL_THRESHOLD);
+    }
+
+    /**
+     * @param threads Number of workers
+     * @param stealThreshold Number of tasks queued behind a running task before idle workers may steal them
+     */
+    public AffinityAsyncQueue(int threads, int stealThreshold) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Must have at least 1 thread");
+        }
+        if (stealThreshold < 1) {
+            throw new IllegalArgumentException("Must steal at 1 or more queued tasks");
+        }
+        this.stealThreshold = stealThreshold;
+        this.workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            this.workers[i] = new Worker();
+        }
+        for (Worker worker : this.workers) {
+            worker.thread.start();
+        }
+    }
+
+    /**
+     * Posts a task without an affinity, spreading them over the workers
+     */
+    @Override
+    public void postAsync(Runnable runnable) {
+        postAsync(runnable, nextWorker.getAndIncrement());
+    }
+
+    /**
+     * Posts a task to the worker for the affinity
+     * @param runnable The task
+     * @param affinity Tasks with the same affinity run on the same worker, unless stolen by an idle worker
+     */
+    public void postAsync(Runnable runnable, int affinity) {
+        if (shutdown) {
+            runnable.run();
+            return;
+        }
+        final Worker worker = workers[workerIndex(affinity)];
+        worker.queue.add(runnable);
+        final int queued = worker.queued.incrementAndGet();
+        if (shutdown && worker.queue.remove(runnable)) {
+            // The worker may have already exited
+            worker.queued.decrementAndGet();
+            runnable.run();
+        } else if (worker.parked) {
+            LockSupport.unpark(worker.thread);
+        } else if (worker.running && queued >= stealThreshold) {
+            // Saturated, let an idle worker steal it
+            for (Worker idle : workers) {
+                if (idle.parked) {
+                    LockSupport.unpark(idle.thread);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The index of the worker tasks with the affinity are posted to
+     */
+    int workerIndex(int affinity) {
+        return Math.floorMod(affinity ^ (affinity >>> 16), workers.length);
+    }
+
+    /**
+     * Call during game shutdown state. Workers finish all queued tasks before they exit.
+     * @param timeout
+     * @param unit
+     */
+    @Override
+    public void shutdown(int timeout, TimeUnit unit) {
+        shutdown = true;
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Worker worker : workers) {
+            LockSupport.unpark(worker.thread);
+        }
+        try {
+            for (Worker worker : workers) {
+                final long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    break;
+                }
+                worker.thread.join(remaining);
+            }
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @return A task queued on a saturated worker, or null
+     */
+    private Runnable steal(Worker thief) {
+        for (Worker worker : workers) {
+            if (worker != thief && isSaturated(worker)) {
+                final Runnable task = worker.poll();
+                if (task != null) {
+                    return task;
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean canSteal(Worker thief) {
+        for (Worker worker : workers) {
+            if (worker != thief && isSaturated(worker)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isSaturated(Worker worker) {
+        return worker.running && worker.queued.get() >= stealThreshold;
+    }
+
+    private final class Worker implements Runnable {
+        private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        /**
+         * Size of the queue, which the queue itself can only count by walking it
+         */
+        private final AtomicInteger queued = new AtomicInteger();
+        private final Thread thread;
+        private volatile boolean parked = false;
+        private volatile boolean running = false;
+
+        private Worker() {
+            this.thread = new Thread(TaskChainUtil.taskChainThread(this), "TaskChain AffinityAsyncQueue Thread " + threadId.getAndIncrement());
+            this.thread.setDaemon(true);
+        }
+
+        private Runnable poll() {
+            final Runnable task = queue.poll();
+            if (task != null) {
+                queued.decrementAndGet();
+            }
+            return task;
+        }
+
+        @Override
+        public void run() {
+            for (;;) {
+                Runnable task = poll();
+                if (task == null) {
+                    task = steal(this);
+                }
+                if (task != null) {
+                    running = true;
+                    try {
+                        task.run();
+                    } catch (Throwable e) {
+                        TaskChainUtil.logError("TaskChain Exception in AffinityAsyncQueue task: " + e.getMessage());
+                        e.printStackTrace();
+                    } finally {
+                        running = false;
+                    }
+                    continue;
+                }
+                if (shutdown) {
+                    return;
+                }
+                parked = true;
+                // Checked again once parked is visible, so a task posted meanwhile is not missed
+                if (queue.isEmpty() && !canSteal(this) && !shutdown) {
+                    LockSupport.park(this);
+                }
+                parked = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Holds chains that have finished executing so that they may be handed out again by
+ * {@link TaskChainFactory#newChain()} when pooling is enabled.
+ *
+ * The pool is split into stripes selected by the current thread, so threads creating and finishing
+ * chains at the same time rarely contend on the same slots. Chains are only held up to the capacity
+ * of the pool, anything over that is left to the garbage collector.
+ */
+final class ChainPool {
+    private static final int SLOTS_PER_STRIPE = 8;
+
+    private final AtomicReferenceArray<TaskChain<?>> slots;
+    private final int stripeMask;
+
+    ChainPool() {
+        int stripes = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2 - 1);
+        this.stripeMask = stripes - 1;
+        this.slots = new AtomicReferenceArray<>(stripes * SLOTS_PER_STRIPE);
+    }
+
+    /**
+     * @return A recycled chain ready to be built again, or null if the pool is empty
+     */
+    <T> TaskChain<T> acquire() {
+        final int size = this.slots.length();
+        final int start = stripe();
+        for (int i = 0; i < size; i++) {
+            final int slot = (start + i) & (size - 1);
+            final TaskChain<?> chain = this.slots.get(slot);
+            if (chain != null && this.slots.compareAndSet(slot, chain, null)) {
+                //noinspection unchecked
+                return (TaskChain<T>) chain;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns a chain that has been reset to the pool. Only the stripe of the current thread is
+     * checked for a free slot, the chain is dropped if it is full.
+     */
+    void release(TaskChain<?> chain) {
+        final int start = stripe();
+        for (int i = 0; i < SLOTS_PER_STRIPE; i++) {
+            if (this.slots.get(start + i) == null && this.slots.compareAndSet(start + i, null, chain)) {
+                return;
+            }
+        }
+    }
+
+    private int stripe() {
+        final long id = Thread.currentThread().getId();
+        return ((int) (id * 0x9E3779B97F4A7C15L >>> 32) & this.stripeMask) * SLOTS_PER_STRIPE;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import co.aikar.taskchain.TaskChainTasks.Task;
+
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * A reusable set of tasks that may be executed many times, including concurrently, without rebuilding the chain.
+ *
+ * Templates are created by {@link TaskChainFactory#newTemplate(Consumer)} using the same API as a normal chain.
+ * Every execution gets its own chain, so Task Data is never shared between executions.
+ *
+ * Tasks inside of a template should use {@link TaskChain#getCurrentChain()} to access the executing chain,
+ * as the chain passed to the builder is never executed.
+ *
+ * @param <T> Type of the seed value that is passed to the first task
+ */
+@SuppressWarnings("WeakerAccess")
+public final class ChainTemplate <T> {
+    private final TaskChainFactory factory;
+    private final TaskChain.TaskHolder<?, ?>[] tasks;
+    private final int[] prefetchTasks;
+
+    ChainTemplate(TaskChainFactory factory, TaskChain.TaskHolder<?, ?>[] tasks) {
+        this.factory = factory;
+        this.tasks = tasks;
+        this.prefetchTasks = TaskChain.findPrefetchTasks(tasks);
+    }
+
+    /**
+     * Executes the tasks of this template, passing the seed value to the first task
+     * @param seed The value the first task receives as input
+     */
+    public void execute(T seed) {
+        execute(seed, (Consumer<Boolean>) null, null);
+    }
+
+    /**
+     * Executes the tasks of this template with a done notifier
+     * @param seed The value the first task receives as input
+     * @param done The Callback to handle when the chain has finished completion.
+     */
+    public void execute(T seed, Runnable done) {
+        execute(seed, (finished) -> done.run(), null);
+    }
+
+    /**
+     * Executes the tasks of this template with a done notifier
+     * @param seed The value the first task receives as input
+     * @param done The Callback to handle when the chain has finished completion. Argument to consumer contains finish state
+     */
+    public void execute(T seed, Consumer<Boolean> done) {
+        execute(seed, done, null);
+    }
+
+    /**
+     * Executes the tasks of this template with a done notifier and error handler
+     * @param seed The value the first task receives as input
+     * @param done The Callback to handle when the chain has finished completion. Argument to consumer contains finish state
+     * @param errorHandler The Error handler to handle exceptions
+     */
+    public void execute(T seed, Consumer<Boolean> done, BiConsumer<Exception, Task<?, ?>> errorHandler) {
+        final TaskChain<T> chain = factory.newTemplateChain(tasks, seed);
+        if (prefetchTasks.length > 0) {
+            chain.startPrefetch(prefetchTasks);
+        }
+        chain.execute(done, errorHandler);
+    }
+
+    /**
+     * Creates a template running the same tasks, with a class generated for each run of tasks that execute together
+     * on one thread. The generated class holds the tasks as constants and calls each directly, so the JIT can inline
+     * every task into the run, rather than calling all of them through the same call site.
+     *
+     * Worth it for hot templates with many tasks in a row on the same thread. Behavior is otherwise identical.
+     * Generating the classes needs Java 15 or later, on earlier versions the returned template is not compiled.
+     *
+     * @return The compiled template. This template is left unchanged
+     */
+    public ChainTemplate<T> compile() {
+        return new ChainTemplate<>(factory, TaskChain.compileSegments(tasks));
+    }
+
+    /**
+     * @return If any tasks of this template run through classes generated by {@link #compile()}
+     */
+    boolean isCompiled() {
+        return TaskChain.hasCompiledSegments(tasks);
+    }
+
+    /**
+     * @return The number of tasks in this template
+     */
+    public int size() {
+        return tasks.length;
+    }
+}
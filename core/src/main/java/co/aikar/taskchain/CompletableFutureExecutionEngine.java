@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Compiles a chain into a {@link CompletableFuture} pipeline with one stage per segment of tasks
+ * (see {@link TaskChain#runStage(int)}).
+ *
+ * Stages that run on the main or async threads are composed with thenComposeAsync on an executor for that
+ * thread, which runs the stage directly if it is already on the correct thread. Stages that run on the
+ * current thread are composed with thenCompose.
+ */
+final class CompletableFutureExecutionEngine extends ExecutionEngine {
+    @Override
+    void execute(TaskChain<?> chain) {
+        // The whole pipeline is built before it starts, as the chain may finish and be recycled once it does
+        final CompletableFuture<Void> start = new CompletableFuture<>();
+        CompletableFuture<Void> pipeline = start;
+        final int count = chain.getTaskCount();
+        for (int index = 0; index < count; index = chain.getStageEnd(index)) {
+            final Stage stage = new Stage(chain, index);
+            if (stage.thread == TaskChain.RUNS_ON_CURRENT) {
+                pipeline = pipeline.thenCompose(stage);
+            } else {
+                pipeline = pipeline.thenComposeAsync(stage, stage);
+            }
+        }
+        pipeline.whenComplete((v, throwable) -> chain.completeStages(throwable));
+        start.complete(null);
+    }
+
+    /**
+     * Runs a stage of the chain, and is the executor that moves the stage to its thread
+     */
+    private static final class Stage implements Function<Void, CompletionStage<Void>>, Executor {
+        private final TaskChain<?> chain;
+        private final int index;
+        private final int thread;
+
+        private Stage(TaskChain<?> chain, int index) {
+            this.chain = chain;
+            this.index = index;
+            this.thread = chain.getStageThread(index);
+        }
+
+        @Override
+        public CompletionStage<Void> apply(Void previous) {
+            return this.chain.runStage(this.index);
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            final TaskChainFactory factory = this.chain.getFactory();
+            final GameInterface impl = factory.getImplementation();
+            final boolean runsOnMain = this.thread == TaskChain.RUNS_ON_MAIN;
+            if (factory.shutdown || impl.isMainThread() == runsOnMain) {
+                task.run();
+                return;
+            }
+            this.chain.dispatchingStage(this.index);
+            if (runsOnMain) {
+                impl.postToMain(task);
+            } else {
+                this.chain.postAsync(task);
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+/**
+ * Where a chain continues after a Future or Callback task completes on a thread other than the one it ran on,
+ * such as a database driver or network library thread.
+ *
+ * Selected per factory with {@link TaskChainFactory#setContinuationPolicy(ContinuationPolicy)}.
+ */
+@SuppressWarnings("WeakerAccess")
+public enum ContinuationPolicy {
+    /**
+     * Continues on the thread that completed the task, until a task needs another thread.
+     * Tasks that run on the current thread, and async tasks, run on the completing thread.
+     */
+    COMPLETING_THREAD,
+    /**
+     * Leaves a completing thread other than the main thread right away, switching threads only once:
+     * to the main thread if the next task runs there, otherwise to the async queue.
+     * The completing thread only posts the chain, so it is never kept busy by the tasks that follow.
+     *
+     * Threads of TaskChain's own async queues and {@link AffinityAsyncQueue} workers, and batches of delays,
+     * are already async threads the chain would be posted to, so async tasks continue on them.
+     */
+    TARGET_EXECUTOR
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The engine chains have always used. The chain fires off each task itself, see {@link TaskChain#dispatch()}.
+ */
+final class DefaultExecutionEngine extends ExecutionEngine {
+    /**
+     * How many tasks the async chains of {@link #executeAll(TaskChainFactory, List)} are split between
+     */
+    private static final int ASYNC_GROUPS = Runtime.getRuntime().availableProcessors();
+    /**
+     * Most chains dispatched by each task posted to the main thread by {@link #executeAll(TaskChainFactory, List)},
+     * so that a {@link MainThreadQueue} may stop draining between groups
+     */
+    static final int MAIN_GROUP_SIZE = 32;
+
+    @Override
+    void execute(TaskChain<?> chain) {
+        chain.dispatch();
+    }
+
+    /**
+     * Chains that start on this thread are dispatched directly. The rest are grouped by the thread their first
+     * task runs on, and each group is posted as a single task that dispatches all of its chains.
+     *
+     * Main thread chains are split into groups of {@link #MAIN_GROUP_SIZE}, so that dispatching thousands of
+     * chains does not become a single task the {@link MainThreadQueue} drain limits can not split.
+     *
+     * Async chains without an affinity queue are split into a group per processor, so that their first tasks
+     * still run in parallel. Affinity workers run their chains one at a time anyway, so each gets one group.
+     */
+    @Override
+    void executeAll(TaskChainFactory factory, List<TaskChain<?>> chains) {
+        if (chains.isEmpty()) {
+            return;
+        }
+        final GameInterface impl = factory.getImplementation();
+        final AffinityAsyncQueue affinityQueue = factory.getAffinityQueue();
+        final boolean isMainThread = impl.isMainThread();
+        List<TaskChain<?>> mainChains = null;
+        List<TaskChain<?>> asyncChains = null;
+        Map<Integer, List<TaskChain<?>>> workerChains = null;
+        for (TaskChain<?> chain : chains) {
+            final int thread = chain.getTaskCount() > 0 ? chain.getStageThread(0) : TaskChain.RUNS_ON_CURRENT;
+            if (factory.shutdown || thread == TaskChain.RUNS_ON_CURRENT || (thread == TaskChain.RUNS_ON_MAIN) == isMainThread) {
+                chain.dispatch();
+            } else if (thread == TaskChain.RUNS_ON_MAIN) {
+                if (mainChains == null) {
+                    mainChains = new ArrayList<>();
+                }
+                mainChains.add(chain);
+            } else if (affinityQueue != null) {
+                if (workerChains == null) {
+                    workerChains = new HashMap<>();
+                }
+                // Keeps each chain on the worker it would have been posted to on its own
+                workerChains.computeIfAbsent(affinityQueue.workerIndex(chain.getAffinityHash()), k -> new ArrayList<>()).add(chain);
+            } else {
+                if (asyncChains == null) {
+                    asyncChains = new ArrayList<>();
+                }
+                asyncChains.add(chain);
+            }
+        }
+        if (mainChains != null) {
+            for (int i = 0; i < mainChains.size(); i += MAIN_GROUP_SIZE) {
+                impl.postToMain(dispatchAll(mainChains.subList(i, Math.min(i + MAIN_GROUP_SIZE, mainChains.size()))));
+            }
+        }
+        if (asyncChains != null) {
+            final int size = asyncChains.size();
+            final int groups = Math.min(size, ASYNC_GROUPS);
+            for (int i = 0; i < groups; i++) {
+                impl.postAsync(dispatchAll(asyncChains.subList(i * size / groups, (i + 1) * size / groups)));
+            }
+        }
+        if (workerChains != null) {
+            for (List<TaskChain<?>> group : workerChains.values()) {
+                affinityQueue.postAsync(dispatchAll(group), group.get(0).getAffinityHash());
+            }
+        }
+    }
+
+    private static Runnable dispatchAll(List<TaskChain<?>> chains) {
+        return () -> {
+            for (TaskChain<?> chain : chains) {
+                chain.dispatch();
+            }
+        };
+    }
+}
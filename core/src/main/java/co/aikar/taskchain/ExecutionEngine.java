@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import java.util.List;
+
+/**
+ * Executes the tasks of a chain once it has been built.
+ *
+ * Engines are selected per factory with {@link TaskChainFactory#setExecutionEngine(ExecutionEngine)}, so that
+ * different engines may be compared under the same load. Every engine handles aborts, errors, shared chains
+ * and done handlers the same way.
+ *
+ * Only the built in engines, {@link #DEFAULT} and {@link #COMPLETABLE_FUTURE}, are supported. Engines drive
+ * the internal state of a chain, so this class can not be extended outside of TaskChain.
+ */
+@SuppressWarnings("WeakerAccess")
+public abstract class ExecutionEngine {
+    /**
+     * Switches threads directly from the chain, continuing tasks that complete on the thread they ran on in a loop.
+     */
+    public static final ExecutionEngine DEFAULT = new DefaultExecutionEngine();
+    /**
+     * Compiles the chain into a {@link java.util.concurrent.CompletableFuture} pipeline, running each stage
+     * on executors for the main and async threads built from the {@link GameInterface}.
+     */
+    public static final ExecutionEngine COMPLETABLE_FUTURE = new CompletableFutureExecutionEngine();
+
+    /**
+     * Engines can not be implemented outside of TaskChain, see the class documentation
+     */
+    ExecutionEngine() {}
+
+    /**
+     * Starts executing a chain that has finished adding tasks
+     */
+    abstract void execute(TaskChain<?> chain);
+
+    /**
+     * Starts executing chains of the factory that have been marked as executing by {@link TaskChain#start()}
+     */
+    void executeAll(TaskChainFactory factory, List<TaskChain<?>> chains) {
+        for (TaskChain<?> chain : chains) {
+            execute(chain);
+        }
+    }
+}
@@ -45,6 +45,15 @@ public interface GameInterface {
      */
     void postToMain(Runnable run);
 
+    /**
+     * Returns the queue that {@link #postToMain(Runnable)} coalesces tasks into, if the game drains
+     * tasks for the main thread from a {@link MainThreadQueue}
+     * @return The queue, or null if tasks are scheduled with the game individually
+     */
+    default MainThreadQueue getMainThreadQueue() {
+        return null;
+    }
+
     /**
      * Execute the runnable off of the main thread
      * @param run
@@ -63,6 +72,21 @@ public interface GameInterface {
      */
     void scheduleTask(int gameUnits, Runnable run);
 
+    /**
+     * Runs the hook on the main thread once every game unit, such as every tick in Minecraft.
+     *
+     * Factories then keep delays in game units in a wheel that the hook advances, running every delay that is
+     * due in one batch, instead of calling {@link #scheduleTask(int, Runnable)} for each delay.
+     *
+     * IMPLEMENTATION SPECIFIC
+     *
+     * @param hook Advances the delays of a factory by one game unit
+     * @return If the hook was registered. Games without a tick hook return false, and keep using scheduleTask
+     */
+    default boolean registerTickHook(Runnable hook) {
+        return false;
+    }
+
     /**
      * Every factory created needs to register a way to automatically shut itself down (On Disable)
      *
@@ -78,6 +102,9 @@ public interface GameInterface {
      * Method will be ran async from main thread.
      * Chain must {@link TaskChain#abort()} if the delay is interrupted.
      *
+     * Factories do not use this default, which holds a thread for the whole delay. They run real time delays
+     * on a timing wheel instead, unless this method is implemented.
+     *
      * @param duration Duration to delay
      * @param units Units to delay in
      * @param run Callback to execute once the delay is done.
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Coalesces tasks posted to the main thread into a single queue, drained once per game tick by one repeating task,
+ * instead of scheduling a task with the game for every switch to the main thread.
+ *
+ * Posting is lock free and may be done from any thread. Draining must only be done on the main thread.
+ * Each drain is bounded by a number of tasks and a time budget, leaving the rest for the next drain.
+ *
+ * Besides the drain every tick, the queue may be drained at other points of a tick, see
+ * {@link TaskChainFactory#drainMainThread(long, TimeUnit)}. A task may itself drain the queue.
+ */
+@SuppressWarnings("WeakerAccess")
+public class MainThreadQueue {
+    private static final AtomicReferenceFieldUpdater<MainThreadQueue, Node> TAIL =
+            AtomicReferenceFieldUpdater.newUpdater(MainThreadQueue.class, Node.class, "tail");
+    private static final AtomicReferenceFieldUpdater<Node, Runnable> TASK =
+            AtomicReferenceFieldUpdater.newUpdater(Node.class, Runnable.class, "task");
+
+    /**
+     * Only accessed by the draining thread. The task of the head has already been taken.
+     */
+    private Node head = new Node(null);
+    private volatile Node tail = head;
+    private final LongAdder posted = new LongAdder();
+    private volatile long drained = 0;
+    private volatile int maxTasksPerDrain = Integer.MAX_VALUE;
+    private volatile long maxNanosPerDrain = TimeUnit.MILLISECONDS.toNanos(25);
+    private volatile boolean shutdown = false;
+    private volatile Runnable tickHook;
+
+    /**
+     * Queues a task to run on the main thread during the next drain
+     * @param task The task
+     */
+    public void post(Runnable task) {
+        if (shutdown) {
+            task.run();
+            return;
+        }
+        final Node node = new Node(task);
+        posted.increment();
+        TAIL.getAndSet(this, node).next = node;
+        if (shutdown && TASK.compareAndSet(node, task, null)) {
+            // The final drain may have already finished
+            posted.decrement();
+            task.run();
+        }
+    }
+
+    /**
+     * Runs the tick hook, then drains the queue. Call once every game tick on the main thread,
+     * from the one repeating task a game keeps with its scheduler, instead of one task per switch to the main thread.
+     *
+     * The hook runs first, so delays in game units count from this tick whether they are scheduled by the tasks
+     * drained here or later in the tick.
+     */
+    public void tick() {
+        final Runnable tickHook = this.tickHook;
+        if (tickHook != null) {
+            tickHook.run();
+        }
+        drain();
+    }
+
+    /**
+     * Sets the hook ran at the start of every {@link #tick()}, for games implementing
+     * {@link GameInterface#registerTickHook(Runnable)} with this queue
+     * @param hook The hook
+     */
+    public void setTickHook(Runnable hook) {
+        this.tickHook = hook;
+    }
+
+    /**
+     * Runs queued tasks, until the queue is empty or the limits of a drain are reached.
+     * Tasks posted while draining may run in the same drain.
+     *
+     * Must be called on the main thread.
+     * @return The number of tasks ran
+     */
+    public int drain() {
+        return drain(maxTasksPerDrain, maxNanosPerDrain);
+    }
+
+    /**
+     * Runs queued tasks, until the queue is empty or the supplied limits are reached.
+     *
+     * Must be called on the main thread.
+     * @param maxTasks Most tasks to run
+     * @param maxNanos Time budget in nanoseconds. Tasks are not interrupted, so the last task may run over it
+     * @return The number of tasks ran
+     */
+    public int drain(int maxTasks, long maxNanos) {
+        final long start = System.nanoTime();
+        int ran = 0;
+        while (ran < maxTasks) {
+            final Runnable task = poll();
+            if (task == null) {
+                break;
+            }
+            ran++;
+            try {
+                task.run();
+            } catch (Throwable e) {
+                TaskChainUtil.logError("TaskChain Exception in main thread task: " + e.getMessage());
+                e.printStackTrace();
+            }
+            if (System.nanoTime() - start >= maxNanos) {
+                break;
+            }
+        }
+        if (ran > 0) {
+            drained += ran;
+        }
+        return ran;
+    }
+
+    /**
+     * @return The number of tasks waiting for a drain
+     */
+    public long getDepth() {
+        return Math.max(0, posted.sum() - drained);
+    }
+
+    /**
+     * @return The most tasks a drain runs
+     */
+    public int getMaxTasksPerDrain() {
+        return maxTasksPerDrain;
+    }
+
+    /**
+     * Limits the tasks ran by each drain. Defaults to no limit.
+     * @param maxTasks The most tasks a drain runs
+     */
+    public void setMaxTasksPerDrain(int maxTasks) {
+        if (maxTasks < 1) {
+            throw new IllegalArgumentException("Must run at least 1 task per drain");
+        }
+        this.maxTasksPerDrain = maxTasks;
+    }
+
+    /**
+     * @return The time budget of a drain, in the supplied unit
+     */
+    public long getMaxTimePerDrain(TimeUnit unit) {
+        return unit.convert(maxNanosPerDrain, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Limits how long each drain runs tasks for. A drain always runs at least 1 task. Defaults to 25 milliseconds.
+     * @param duration The time budget of a drain
+     * @param unit Units of the duration
+     */
+    public void setMaxTimePerDrain(long duration, TimeUnit unit) {
+        this.maxNanosPerDrain = unit.toNanos(duration);
+    }
+
+    /**
+     * Call during game shutdown state, on the main thread. Runs every queued task without limits,
+     * and runs tasks posted afterwards on the thread posting them.
+     */
+    public void shutdown() {
+        shutdown = true;
+        for (;;) {
+            drain(Integer.MAX_VALUE, Long.MAX_VALUE);
+            if (head == tail) {
+                return;
+            }
+            // A task is being posted, and is not linked yet
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Takes the next task, or null if the queue is empty, or the next task is not linked yet
+     */
+    private Runnable poll() {
+        for (;;) {
+            final Node next = head.next;
+            if (next == null) {
+                return null;
+            }
+            head = next;
+            final Runnable task = TASK.getAndSet(next, null);
+            if (task != null) {
+                return task;
+            }
+            // Ran by the thread that posted it during shutdown
+        }
+    }
+
+    private static final class Node {
+        volatile Runnable task;
+        private volatile Node next;
+
+        private Node(Runnable task) {
+            this.task = task;
+        }
+    }
+}
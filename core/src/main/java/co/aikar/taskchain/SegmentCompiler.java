@@ -0,0 +1,323 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import co.aikar.taskchain.TaskChain.InlineTaskHolder;
+import co.aikar.taskchain.TaskChain.TaskHolder;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Generates a class for each segment of a compiled {@link ChainTemplate}, see {@link ChainTemplate#compile()}.
+ *
+ * The tasks of the segment, and the arguments they are called with, are stored in static final fields of the
+ * generated class, which calls each task through the static invoke method of its holder in straight-line code.
+ * The JIT treats static final fields as constants, so every task call is bound to the exact class of that task
+ * and may be inlined, instead of going through the call site in the holder that every task of that kind shares.
+ *
+ * The classes are defined as hidden classes, which are unloaded along with the template. Hidden classes need
+ * Java 15, on earlier versions {@link #isSupported()} is false and templates are left interpreted.
+ */
+final class SegmentCompiler {
+    /**
+     * Tasks per generated class, keeping the generated method well below the size the JIT refuses to compile.
+     * Longer segments are split into classes that each call the next.
+     */
+    private static final int CLASS_TASKS = 32;
+
+    private static final String OBJECT = "java/lang/Object";
+    private static final String TASK_CHAIN = "co/aikar/taskchain/TaskChain";
+    private static final String TASK = "co/aikar/taskchain/TaskChainTasks$Task";
+    private static final String SEGMENT = "co/aikar/taskchain/SegmentCompiler$Segment";
+    private static final String COMPILED = "co/aikar/taskchain/CompiledSegment";
+    private static final String RUN = "(L" + TASK_CHAIN + ";L" + OBJECT + ";)L" + OBJECT + ";";
+
+    /**
+     * Passes the constants of the class being defined to its static initializer
+     */
+    private static final ThreadLocal<Object[]> defining = new ThreadLocal<>();
+    /**
+     * Lookup#defineHiddenClass, or null before Java 15
+     */
+    private static final Method DEFINE_HIDDEN_CLASS;
+    private static final Object NO_OPTIONS;
+
+    static {
+        Method define = null;
+        Object options = null;
+        try {
+            options = Array.newInstance(Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption"), 0);
+            define = Lookup.class.getMethod("defineHiddenClass", byte[].class, boolean.class, options.getClass());
+        } catch (ReflectiveOperationException ignored) {
+            // Before Java 15, templates are not compiled
+        }
+        DEFINE_HIDDEN_CLASS = define;
+        NO_OPTIONS = options;
+    }
+
+    private SegmentCompiler() {}
+
+    /**
+     * Runs the tasks of a segment, implemented by the generated classes
+     */
+    abstract static class Segment {
+        /**
+         * @return The result of the last task, or {@link TaskChain#ABORT} if the chain was aborted
+         */
+        abstract Object run(TaskChain<?> chain, Object value);
+    }
+
+    /**
+     * @return If segments can be compiled on this JVM
+     */
+    static boolean isSupported() {
+        return DEFINE_HIDDEN_CLASS != null;
+    }
+
+    /**
+     * Generates the classes running the tasks from start to end, which must all be {@link InlineTaskHolder}s
+     */
+    static Segment compile(TaskHolder<?, ?>[] tasks, int start, int end) {
+        Segment next = null;
+        for (int from = start + (end - start - 1) / CLASS_TASKS * CLASS_TASKS; from >= start; from -= CLASS_TASKS) {
+            next = define(tasks, from, Math.min(from + CLASS_TASKS, end), next);
+        }
+        return next;
+    }
+
+    /**
+     * Called by the static initializer of the class being defined
+     */
+    static Object[] definingConstants() {
+        return defining.get();
+    }
+
+    private static Segment define(TaskHolder<?, ?>[] tasks, int start, int end, Segment next) {
+        final ClassFile file = new ClassFile();
+        final List<Object> constants = new ArrayList<>();
+        final List<String> types = new ArrayList<>();
+        final Bytes run = new Bytes();
+        final List<Integer> frames = new ArrayList<>();
+        final int enter = file.method(TASK_CHAIN, "enterCompiledTask", "(L" + TASK_CHAIN + ";IL" + OBJECT + ";Z)L" + OBJECT + ";");
+        final int abort = file.field(TASK_CHAIN, "ABORT", "L" + OBJECT + ";");
+        for (int i = start; i < end; i++) {
+            final InlineTaskHolder<?, ?> holder = (InlineTaskHolder<?, ?>) tasks[i];
+            // value = enterCompiledTask(chain, i, value, takesPrimitive); if (value == ABORT) return value;
+            run.u1(0x2b).u1(0x13).u2(file.integer(i)).u1(0x2c).u1(holder.takesPrimitive() ? 0x04 : 0x03)
+                    .u1(0xb8).u2(enter).u1(0x59).u1(0x4d).u1(0xb2).u2(abort).u1(0xa6).u2(5).u1(0x2c).u1(0xb0);
+            frames.add(run.size);
+            // value = Holder.invoke(chain, value, task, args...);
+            run.u1(0x2b).u1(0x2c);
+            final StringBuilder descriptor = new StringBuilder("(L" + TASK_CHAIN + ";L" + OBJECT + ";");
+            final Object[] holderConstants = holder.constants();
+            for (int c = 0; c < holderConstants.length; c++) {
+                final String type = c == 0 ? TASK : OBJECT;
+                descriptor.append('L').append(type).append(';');
+                run.u1(0xb2).u2(file.field(COMPILED, "c" + constants.size(), "L" + type + ";"));
+                constants.add(holderConstants[c]);
+                types.add(type);
+            }
+            descriptor.append(")L").append(OBJECT).append(';');
+            run.u1(0xb8).u2(file.method(holder.getClass().getName().replace('.', '/'), "invoke", descriptor.toString()))
+                    .u1(0x4d);
+        }
+        if (next != null) {
+            // return next.run(chain, value);
+            run.u1(0xb2).u2(file.field(COMPILED, "c" + constants.size(), "L" + SEGMENT + ";"))
+                    .u1(0x2b).u1(0x2c).u1(0xb6).u2(file.method(SEGMENT, "run", RUN)).u1(0xb0);
+            constants.add(next);
+            types.add(SEGMENT);
+        } else {
+            run.u1(0x2c).u1(0xb0);
+        }
+
+        final Bytes init = new Bytes().u1(0x2a).u1(0xb7).u2(file.method(SEGMENT, "<init>", "()V")).u1(0xb1);
+        final Bytes clinit = new Bytes().u1(0xb8).u2(file.method(SegmentCompiler.class.getName().replace('.', '/'),
+                "definingConstants", "()[L" + OBJECT + ";")).u1(0x4b);
+        for (int c = 0; c < constants.size(); c++) {
+            clinit.u1(0x2a).u1(0x13).u2(file.integer(c)).u1(0x32);
+            if (!OBJECT.equals(types.get(c))) {
+                clinit.u1(0xc0).u2(file.type(types.get(c)));
+            }
+            clinit.u1(0xb3).u2(file.field(COMPILED, "c" + c, "L" + types.get(c) + ";"));
+        }
+        clinit.u1(0xb1);
+
+        final Bytes fields = new Bytes().u2(constants.size());
+        for (int c = 0; c < constants.size(); c++) {
+            fields.u2(0x1a).u2(file.utf8("c" + c)).u2(file.utf8("L" + types.get(c) + ";")).u2(0);
+        }
+        final Bytes methods = new Bytes().u2(3);
+        file.code(methods, 0, "<init>", "()V", 1, 1, init, null);
+        file.code(methods, 0x08, "<clinit>", "()V", 2, 1, clinit, null);
+        file.code(methods, 0, "run", RUN, 6, 3, run, frames);
+
+        defining.set(constants.toArray());
+        try {
+            final Lookup lookup = (Lookup) DEFINE_HIDDEN_CLASS.invoke(MethodHandles.lookup(),
+                    file.toByteArray(COMPILED, SEGMENT, fields, methods), true, NO_OPTIONS);
+            return (Segment) lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class)).invoke();
+        } catch (Throwable e) {
+            TaskChainUtil.sneakyThrows(e);
+            return null;
+        } finally {
+            defining.remove();
+        }
+    }
+
+    /**
+     * The constant pool of the class being generated, and the assembly of the final class file
+     */
+    private static final class ClassFile {
+        private final Bytes pool = new Bytes();
+        private final Map<String, Integer> entries = new HashMap<>();
+        private int poolCount = 1;
+
+        private int entry(String key) {
+            final Integer index = this.entries.get(key);
+            if (index != null) {
+                return index;
+            }
+            this.entries.put(key, this.poolCount);
+            return -this.poolCount++;
+        }
+
+        int utf8(String value) {
+            final int index = entry("Utf8 " + value);
+            if (index < 0) {
+                this.pool.u1(1).u2(value.length());
+                for (int i = 0; i < value.length(); i++) {
+                    this.pool.u1(value.charAt(i));
+                }
+            }
+            return Math.abs(index);
+        }
+
+        int integer(int value) {
+            final int index = entry("Integer " + value);
+            if (index < 0) {
+                this.pool.u1(3).u4(value);
+            }
+            return Math.abs(index);
+        }
+
+        int type(String name) {
+            final int utf8 = utf8(name);
+            final int index = entry("Class " + name);
+            if (index < 0) {
+                this.pool.u1(7).u2(utf8);
+            }
+            return Math.abs(index);
+        }
+
+        int field(String owner, String name, String descriptor) {
+            return member(9, owner, name, descriptor);
+        }
+
+        int method(String owner, String name, String descriptor) {
+            return member(10, owner, name, descriptor);
+        }
+
+        private int member(int tag, String owner, String name, String descriptor) {
+            final int type = type(owner);
+            final int nameIndex = utf8(name);
+            final int descriptorIndex = utf8(descriptor);
+            final int nameAndType = entry("NameAndType " + name + " " + descriptor);
+            if (nameAndType < 0) {
+                this.pool.u1(12).u2(nameIndex).u2(descriptorIndex);
+            }
+            final int index = entry(tag + " " + owner + " " + name + " " + descriptor);
+            if (index < 0) {
+                this.pool.u1(tag).u2(type).u2(Math.abs(nameAndType));
+            }
+            return Math.abs(index);
+        }
+
+        /**
+         * Writes a method, with a frame at each branch target listed. Every frame has the locals of the method entry.
+         */
+        void code(Bytes methods, int access, String name, String descriptor, int maxStack, int maxLocals,
+                  Bytes code, List<Integer> frames) {
+            final Bytes attribute = new Bytes().u2(maxStack).u2(maxLocals).u4(code.size).bytes(code).u2(0);
+            if (frames == null) {
+                attribute.u2(0);
+            } else {
+                attribute.u2(1).u2(utf8("StackMapTable")).u4(2 + frames.size() * 3).u2(frames.size());
+                int previous = -1;
+                for (int offset : frames) {
+                    // same_frame_extended
+                    attribute.u1(251).u2(offset - previous - 1);
+                    previous = offset;
+                }
+            }
+            methods.u2(access).u2(utf8(name)).u2(utf8(descriptor)).u2(1)
+                    .u2(utf8("Code")).u4(attribute.size).bytes(attribute);
+        }
+
+        byte[] toByteArray(String name, String superName, Bytes fields, Bytes methods) {
+            final int thisClass = type(name);
+            final int superClass = type(superName);
+            final Bytes file = new Bytes().u4(0xCAFEBABE).u2(0).u2(52).u2(this.poolCount).bytes(this.pool)
+                    .u2(0x30).u2(thisClass).u2(superClass).u2(0).bytes(fields).bytes(methods).u2(0);
+            return Arrays.copyOf(file.data, file.size);
+        }
+    }
+
+    private static final class Bytes {
+        private byte[] data = new byte[256];
+        private int size;
+
+        Bytes u1(int value) {
+            if (this.size == this.data.length) {
+                this.data = Arrays.copyOf(this.data, this.size * 2);
+            }
+            this.data[this.size++] = (byte) value;
+            return this;
+        }
+
+        Bytes u2(int value) {
+            return u1(value >>> 8).u1(value);
+        }
+
+        Bytes u4(int value) {
+            return u2(value >>> 16).u2(value);
+        }
+
+        Bytes bytes(Bytes other) {
+            for (int i = 0; i < other.size; i++) {
+                u1(other.data[i]);
+            }
+            return this;
+        }
+    }
+}
@@ -36,46 +36,145 @@ package co.aikar.taskchain;
 import co.aikar.taskchain.TaskChainTasks.*;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 
 /**
  * The Main API class of TaskChain. TaskChain's are created by a {@link TaskChainFactory}
  */
-@SuppressWarnings({"unused", "FieldAccessedSynchronizedAndUnsynchronized"})
+@SuppressWarnings("unused")
 public class TaskChain <T> {
-    private static final ThreadLocal<TaskChain<?>> currentChain = new ThreadLocal<>();
+    /**
+     * Holds the chain executing on each thread. The cell is kept for the life of the thread and only its
+     * value changes, so tracking the current chain does not allocate a new ThreadLocal entry every time.
+     */
+    private static final ThreadLocal<TaskChain<?>[]> currentChain = ThreadLocal.withInitial(() -> new TaskChain<?>[1]);
+    private static final TaskHolder<?, ?>[] NO_TASKS = new TaskHolder<?, ?>[0];
+    /**
+     * Identifies delays to error handlers. The delay is performed by {@link DelayTaskHolder}
+     */
+    private static final AsyncExecutingTask<?, ?> DELAY_TASK = (input, next) -> next.accept(null);
+    private static final CompletableFuture<Void> STAGE_COMPLETED = CompletableFuture.completedFuture(null);
+    /**
+     * Stops the stages of an {@link ExecutionEngine} once the chain has aborted
+     */
+    private static final CompletionException STAGE_ABORTED = new CompletionException(AbortChainException.INSTANCE);
+    /**
+     * Returned by the built in abort tasks instead of throwing an {@link AbortChainException}
+     */
+    static final Object ABORT = new Object();
+
+    /*
+     * The chain state is a single int. The low 2 bits hold the phase, and the remaining bits
+     * hold the index of the next task to execute.
+     */
+    private static final AtomicIntegerFieldUpdater<TaskChain> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(TaskChain.class, "state");
+    private static final int PHASE_BITS = 2;
+    private static final int PHASE_MASK = (1 << PHASE_BITS) - 1;
+    private static final int BUILDING = 0;
+    private static final int EXECUTING = 1;
+    private static final int DONE = 2;
+    private static final int ABORTED = 3;
+
+    /*
+     * TaskHolder flags. The lowest 2 bits hold the thread the task runs on.
+     */
+    static final int RUNS_ON_CURRENT = 0;
+    static final int RUNS_ON_MAIN = 1;
+    static final int RUNS_ASYNC = 2;
+    private static final int THREAD_MASK = 3;
+    /**
+     * Tasks that are given the chain do not need it tracked in {@link TaskChain#currentChain}
+     */
+    private static final int TRACK_CURRENT_CHAIN = 1 << 2;
+    /**
+     * The task returns its result directly, rather than through a Future or Callback
+     */
+    private static final int COMPLETES_INLINE = 1 << 3;
+    /**
+     * The task reads a primitive result of the previous task from {@link TaskChain#primitive}
+     */
+    private static final int PRIMITIVE_INPUT = 1 << 4;
+    /**
+     * The holder runs its whole segment, see {@link CompiledSegmentHolder}
+     */
+    private static final int COMPILED_SEGMENT = 1 << 5;
 
-    private final GameInterface impl;
     private final TaskChainFactory factory;
-    private final Map<String, Object> taskMap = new HashMap<>(0);
-    private final ConcurrentLinkedQueue<TaskHolder<?,?>> chainQueue = new ConcurrentLinkedQueue<>();
+    /*
+     * Task Data is allocated on first use. The fields are re-written after every change so that the
+     * values are published to whichever thread runs the next task.
+     */
+    private volatile Map<String, Object> taskMap;
+    private volatile Object[] taskData;
 
+    private TaskHolder<?, ?>[] tasks = NO_TASKS;
+    private int taskCount = 0;
+    private boolean tasksFused = false;
+    /**
+     * If the tasks array belongs to a {@link ChainTemplate}, and must not be cleared when this chain is recycled
+     */
+    private boolean templateTasks = false;
+    /**
+     * If this chain only builds the tasks of a {@link ChainTemplate}, so prefetch tasks must not start yet
+     */
+    private boolean buildsTemplate = false;
+    /**
+     * If this chain returns to the pool of its factory once done
+     */
+    private boolean pooled = false;
+    /**
+     * Increased every time this chain is recycled by its pool
+     */
+    private int generation = 0;
+    private volatile int state = BUILDING;
     private int currentActionIndex = 0;
-    private int actionIndex = 0;
-    private boolean executed = false;
     private boolean async = false;
-    private boolean done = false;
 
     private Object previous;
-    private TaskHolder<?, ?> currentHolder;
+    /**
+     * Holds the result of a primitive task, while previous holds the {@link PrimitiveValue} describing its type
+     */
+    private long primitive;
+    /**
+     * Posted to switch threads, running the task at {@link #currentActionIndex}
+     */
+    private Runnable resumeTask;
     private Consumer<Boolean> doneCallback;
     private BiConsumer<Exception, Task<?, ?>> errorHandler;
+    private Object affinity;
 
     /* ======================================================================================== */
     TaskChain(TaskChainFactory factory) {
         this.factory = factory;
-        this.impl = factory.getImplementation();
+    }
+
+    /**
+     * Creates a chain that builds the tasks of a {@link ChainTemplate}, and is never executed
+     */
+    TaskChain(TaskChainFactory factory, boolean buildsTemplate) {
+        this(factory);
+        this.buildsTemplate = buildsTemplate;
+    }
+
+    /**
+     * Creates a chain that executes the tasks of a {@link ChainTemplate}, starting with the supplied seed value
+     */
+    TaskChain(TaskChainFactory factory, TaskHolder<?, ?>[] tasks, Object seed) {
+        this(factory);
+        this.useTemplateTasks(tasks, seed);
     }
     /* ======================================================================================== */
     // <editor-fold desc="// API Methods - Getters & Setters">
@@ -114,6 +213,41 @@ public class TaskChain <T> {
     public void setErrorHandler(BiConsumer<Exception, Task<?, ?>> errorHandler) {
         this.errorHandler = errorHandler;
     }
+
+    /**
+     * Sets the key the async tasks of this chain are grouped by, when the factory uses an {@link AffinityAsyncQueue}.
+     * Chains with the same key run their async tasks on the same worker, such as all chains for a player UUID.
+     *
+     * Without a key, the async tasks of each chain still run on the same worker as each other.
+     * @param affinity The key, or null to group by this chain
+     * @see TaskChainFactory#setAffinityQueue(AffinityAsyncQueue)
+     */
+    public void setAffinity(Object affinity) {
+        this.affinity = affinity;
+    }
+
+    /**
+     * @return The key the async tasks of this chain are grouped by, or null if grouped by this chain
+     */
+    public Object getAffinity() {
+        return affinity;
+    }
+
+    /**
+     * Chains created by a factory with pooling enabled are reset and reused once they are done.
+     * The generation is increased every time that happens, so code that holds on to a chain
+     * can compare the generation to know if the chain now belongs to a different execution.
+     *
+     * The generation is only checked when a Future or Callback task completes. Adding tasks, setting
+     * Task Data or executing through a reference to a recycled chain is not detected, and affects
+     * whichever execution now owns the chain.
+     *
+     * @return The number of times this chain has been recycled
+     * @see TaskChainFactory#setChainPooling(boolean)
+     */
+    public int getGeneration() {
+        return generation;
+    }
     // </editor-fold>
     /* ======================================================================================== */
     // <editor-fold desc="// API Methods - Data Wrappers">
@@ -152,6 +286,48 @@ public class TaskChain <T> {
     public static <D1, D2, D3, D4, D5, D6> TaskChainDataWrappers.Data6<D1, D2, D3, D4, D5, D6> multi(D1 var1, D2 var2, D3 var3, D4 var4, D5 var5, D6 var6) {
         return new TaskChainDataWrappers.Data6<>(var1, var2, var3, var4, var5, var6);
     }
+
+    /**
+     * Creates a data wrapper to return multiple ints from a task, without boxing them
+     */
+    public static TaskChainDataWrappers.IntData2 multiInt(int var1, int var2) {
+        return new TaskChainDataWrappers.IntData2(var1, var2);
+    }
+
+    /**
+     * Creates a data wrapper to return multiple ints from a task, without boxing them
+     */
+    public static TaskChainDataWrappers.IntData3 multiInt(int var1, int var2, int var3) {
+        return new TaskChainDataWrappers.IntData3(var1, var2, var3);
+    }
+
+    /**
+     * Creates a data wrapper to return multiple longs from a task, without boxing them
+     */
+    public static TaskChainDataWrappers.LongData2 multiLong(long var1, long var2) {
+        return new TaskChainDataWrappers.LongData2(var1, var2);
+    }
+
+    /**
+     * Creates a data wrapper to return multiple longs from a task, without boxing them
+     */
+    public static TaskChainDataWrappers.LongData3 multiLong(long var1, long var2, long var3) {
+        return new TaskChainDataWrappers.LongData3(var1, var2, var3);
+    }
+
+    /**
+     * Creates a data wrapper to return multiple doubles from a task, without boxing them
+     */
+    public static TaskChainDataWrappers.DoubleData2 multiDouble(double var1, double var2) {
+        return new TaskChainDataWrappers.DoubleData2(var1, var2);
+    }
+
+    /**
+     * Creates a data wrapper to return multiple doubles from a task, without boxing them
+     */
+    public static TaskChainDataWrappers.DoubleData3 multiDouble(double var1, double var2, double var3) {
+        return new TaskChainDataWrappers.DoubleData3(var1, var2, var3);
+    }
     // </editor-fold>
     /* ======================================================================================== */
 
@@ -161,7 +337,7 @@ public class TaskChain <T> {
      */
     @SuppressWarnings("WeakerAccess")
     public static void abort() {
-        TaskChainUtil.sneakyThrows(new AbortChainException());
+        TaskChainUtil.sneakyThrows(AbortChainException.INSTANCE);
     }
 
     /**
@@ -174,7 +350,7 @@ public class TaskChain <T> {
      */
     @SuppressWarnings("WeakerAccess")
     public static TaskChain<?> getCurrentChain() {
-        return currentChain.get();
+        return currentChain.get()[0];
     }
 
     /* ======================================================================================== */
@@ -201,7 +377,17 @@ public class TaskChain <T> {
      */
     @SuppressWarnings("WeakerAccess")
     public boolean hasTaskData(String key) {
-        return taskMap.containsKey(key);
+        final Map<String, Object> taskMap = this.taskMap;
+        return taskMap != null && taskMap.containsKey(key);
+    }
+
+    /**
+     * Checks if the chain has a non null value saved for the specified key.
+     * @param key Key to check if Task Data has a value for
+     */
+    @SuppressWarnings("WeakerAccess")
+    public boolean hasTaskData(TaskDataKey<?> key) {
+        return getTaskData(key) != null;
     }
 
     /**
@@ -212,8 +398,22 @@ public class TaskChain <T> {
      */
     @SuppressWarnings("WeakerAccess")
     public <R> R getTaskData(String key) {
+        final Map<String, Object> taskMap = this.taskMap;
+        //noinspection unchecked
+        return taskMap != null ? (R) taskMap.get(key) : null;
+    }
+
+    /**
+     * Retrieves a value relating to a specific key, saved by a previous task.
+     *
+     * @param key Key to look up Task Data for
+     * @param <R> Type of the Task Data value
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> R getTaskData(TaskDataKey<R> key) {
+        final Object[] taskData = this.taskData;
         //noinspection unchecked
-        return (R) taskMap.get(key);
+        return taskData != null && key.slot < taskData.length ? (R) taskData[key.slot] : null;
     }
 
     /**
@@ -227,8 +427,36 @@ public class TaskChain <T> {
      */
     @SuppressWarnings("WeakerAccess")
     public <R> R setTaskData(String key, Object val) {
+        Map<String, Object> taskMap = this.taskMap;
+        if (taskMap == null) {
+            taskMap = new HashMap<>();
+        }
         //noinspection unchecked
-        return (R) taskMap.put(key, val);
+        final R prev = (R) taskMap.put(key, val);
+        this.taskMap = taskMap;
+        return prev;
+    }
+
+    /**
+     * Saves a value for this chain so that a task furthur up the chain can access it.
+     *
+     * @param key Key to store in Task Data
+     * @param val Value to store in Task Data
+     * @param <R> Type of the Task Data value
+     * @return The previous value for this key
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> R setTaskData(TaskDataKey<R> key, R val) {
+        Object[] taskData = this.taskData;
+        if (taskData == null || key.slot >= taskData.length) {
+            final int size = Math.max(key.slot + 1, TaskDataKey.getSlotCount());
+            taskData = taskData == null ? new Object[size] : Arrays.copyOf(taskData, size);
+        }
+        //noinspection unchecked
+        final R prev = (R) taskData[key.slot];
+        taskData[key.slot] = val;
+        this.taskData = taskData;
+        return prev;
     }
 
     /**
@@ -239,8 +467,33 @@ public class TaskChain <T> {
      */
     @SuppressWarnings("WeakerAccess")
     public <R> R removeTaskData(String key) {
+        final Map<String, Object> taskMap = this.taskMap;
+        if (taskMap == null) {
+            return null;
+        }
+        //noinspection unchecked
+        final R prev = (R) taskMap.remove(key);
+        this.taskMap = taskMap;
+        return prev;
+    }
+
+    /**
+     * Removes a saved value on the chain.
+     *
+     * @param key Key to remove from Task Data
+     * @param <R> Type of the Task Data value
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> R removeTaskData(TaskDataKey<R> key) {
+        final Object[] taskData = this.taskData;
+        if (taskData == null || key.slot >= taskData.length) {
+            return null;
+        }
         //noinspection unchecked
-        return (R) taskMap.remove(key);
+        final R prev = (R) taskData[key.slot];
+        taskData[key.slot] = null;
+        this.taskData = taskData;
+        return prev;
     }
 
     /**
@@ -251,8 +504,22 @@ public class TaskChain <T> {
      */
     @SuppressWarnings("WeakerAccess")
     public TaskChain<T> storeAsData(String key) {
-        return current((val) -> {
-            setTaskData(key, val);
+        return currentWithChain((chain, val) -> {
+            chain.setTaskData(key, val);
+            return val;
+        });
+    }
+
+    /**
+     * {@link TaskChain#storeAsData(String)} using a typed key
+     *
+     * @param key Key to store the previous return value into Task Data
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<T> storeAsData(TaskDataKey<? super T> key) {
+        return currentWithChain((chain, val) -> {
+            //noinspection unchecked
+            chain.setTaskData((TaskDataKey<Object>) key, val);
             return val;
         });
     }
@@ -268,7 +535,18 @@ public class TaskChain <T> {
     @SuppressWarnings("WeakerAccess")
     public <R> TaskChain<R> returnData(String key) {
         //noinspection unchecked
-        return currentFirst(() -> (R) getTaskData(key));
+        return currentWithChain((chain, input) -> (R) chain.getTaskData(key));
+    }
+
+    /**
+     * Reads the specified key from Task Data, and passes it to the next task.
+     *
+     * @param key Key to retrieve from Task Data and pass to next task
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<R> returnData(TaskDataKey<R> key) {
+        return currentWithChain((chain, input) -> chain.getTaskData(key));
     }
 
     /**
@@ -276,7 +554,7 @@ public class TaskChain <T> {
      */
     @SuppressWarnings("WeakerAccess")
     public TaskChain<TaskChain<?>> returnChain() {
-        return currentFirst(() -> this);
+        return currentWithChain((chain, input) -> chain);
     }
 
 
@@ -292,24 +570,20 @@ public class TaskChain <T> {
      */
     @SuppressWarnings("WeakerAccess")
     public TaskChain<T> delay(final int gameUnits) {
-        //noinspection CodeBlock2Expr
-        return currentCallback((input, next) -> {
-            impl.scheduleTask(gameUnits, () -> next.accept(input));
-        });
+        return add0(new DelayTaskHolder<T>(gameUnits, null));
     }
 
     /**
      * Adds a real time delay to the chain execution.
-     * Chain will abort if the delay is interrupted.
+     *
+     * Unless the game implements {@link GameInterface#scheduleTask(int, TimeUnit, Runnable)} itself, delays wait on
+     * a timing wheel of the factory instead of holding a thread, and are rounded up to the next 10 milliseconds.
      *
      * @param duration duration of the delay before next task
      */
     @SuppressWarnings("WeakerAccess")
     public TaskChain<T> delay(final int duration, TimeUnit unit) {
-        //noinspection CodeBlock2Expr
-        return currentCallback((input, next) -> {
-            impl.scheduleTask(duration, unit, () -> next.accept(input));
-        });
+        return add0(new DelayTaskHolder<T>(duration, unit));
     }
 
     // </editor-fold>
@@ -323,7 +597,7 @@ public class TaskChain <T> {
      * @return Chain
      */
     public TaskChain<?> abortChain() {
-        return current(TaskChain::abort);
+        return currentWithChain((chain, obj) -> ABORT);
     }
 
     /**
@@ -416,10 +690,11 @@ public class TaskChain <T> {
      */
     @SuppressWarnings("WeakerAccess")
     public <A1, A2, A3> TaskChain<T> abortIf(T ifObj, TaskChainAbortAction<A1, A2, A3> action, A1 arg1, A2 arg2, A3 arg3) {
-        return current((obj) -> {
+        return currentWithChain((chain, obj) -> {
             if (Objects.equals(obj, ifObj)) {
-                handleAbortAction(action, arg1, arg2, arg3);
-                return null;
+                chain.handleAbortAction(action, arg1, arg2, arg3);
+                //noinspection unchecked
+                return (T) ABORT;
             }
             return obj;
         });
@@ -467,814 +742,2603 @@ public class TaskChain <T> {
      */
     @SuppressWarnings("WeakerAccess")
     public <A1, A2, A3> TaskChain<T> abortIfNot(T ifNotObj, TaskChainAbortAction<A1, A2, A3> action, A1 arg1, A2 arg2, A3 arg3) {
-        return current((obj) -> {
+        return currentWithChain((chain, obj) -> {
             if (!Objects.equals(obj, ifNotObj)) {
-                handleAbortAction(action, arg1, arg2, arg3);
-                return null;
+                chain.handleAbortAction(action, arg1, arg2, arg3);
+                //noinspection unchecked
+                return (T) ABORT;
             }
             return obj;
         });
     }
 
     // </editor-fold>
-    // <editor-fold desc="// API Methods - Async Executing">
+    // <editor-fold desc="// API Methods - Primitive">
     /* ======================================================================================== */
-    // Async Executing Tasks
+    // Primitive Tasks
     /* ======================================================================================== */
 
     /**
-     * Execute a task on the main thread, with no previous input, and a callback to return the response to.
-     *
-     * It's important you don't perform blocking operations in this method. Only use this if
-     * the task will be scheduling a different sync operation outside of the TaskChains scope.
-     *
-     * Usually you could achieve the same design with a blocking API by switching to an async task
-     * for the next task and running it there.
-     *
-     * This method would primarily be for cases where you need to use an API that ONLY provides
-     * a callback style API.
-     *
+     * Execute task on main thread, with the last returned input, returning a int.
+     * The int is passed to the next task without boxing if the next task accepts a int.
      * @param task The task to execute
-     * @param <R> Return type that the next parameter can expect as argument type
      */
     @SuppressWarnings("WeakerAccess")
-    public <R> TaskChain<R> syncFirstCallback(AsyncExecutingFirstTask<R> task) {
+    public TaskChain<Integer> syncToInt(ToIntTask<T> task) {
         //noinspection unchecked
-        return add0(new TaskHolder<>(this, false, task));
+        return add0(new ToIntTaskHolder<>(false, task));
     }
 
     /**
-     * {@link TaskChain#syncFirstCallback(AsyncExecutingFirstTask)} but ran off main thread
+     * Execute task on main thread, with the last returned int as input, returning an output.
+     * The input is not boxed if the previous task returned a int.
      * @param task The task to execute
      * @param <R> Return type that the next parameter can expect as argument type
      */
     @SuppressWarnings("WeakerAccess")
-    public <R> TaskChain<R> asyncFirstCallback(AsyncExecutingFirstTask<R> task) {
+    public <R> TaskChain<R> syncInt(IntTask<R> task) {
         //noinspection unchecked
-        return add0(new TaskHolder<>(this, true, task));
+        return add0(new IntTaskHolder<>(false, task));
     }
 
     /**
-     * {@link TaskChain#syncFirstCallback(AsyncExecutingFirstTask)} but ran on current thread the Chain was created on
+     * Execute task on main thread, with the last returned int as input, returning a int, without boxing either.
      * @param task The task to execute
-     * @param <R> Return type that the next parameter can expect as argument type
      */
     @SuppressWarnings("WeakerAccess")
-    public <R> TaskChain<R> currentFirstCallback(AsyncExecutingFirstTask<R> task) {
+    public TaskChain<Integer> syncIntToInt(IntToIntTask task) {
         //noinspection unchecked
-        return add0(new TaskHolder<>(this, null, task));
+        return add0(new IntToIntTaskHolder(false, task));
     }
 
     /**
-     * Execute a task on the main thread, with the last output, and a callback to return the response to.
-     *
-     * It's important you don't perform blocking operations in this method. Only use this if
-     * the task will be scheduling a different sync operation outside of the TaskChains scope.
-     *
-     * Usually you could achieve the same design with a blocking API by switching to an async task
-     * for the next task and running it there.
-     *
-     * This method would primarily be for cases where you need to use an API that ONLY provides
-     * a callback style API.
-     *
+     * {@link TaskChain#syncToInt(ToIntTask)} but ran off main thread
      * @param task The task to execute
-     * @param <R> Return type that the next parameter can expect as argument type
      */
     @SuppressWarnings("WeakerAccess")
-    public <R> TaskChain<R> syncCallback(AsyncExecutingTask<R, T> task) {
+    public TaskChain<Integer> asyncToInt(ToIntTask<T> task) {
         //noinspection unchecked
-        return add0(new TaskHolder<>(this, false, task));
+        return add0(new ToIntTaskHolder<>(true, task));
     }
 
     /**
-     * {@link TaskChain#syncCallback(AsyncExecutingTask)}, ran on main thread but no input or output
+     * {@link TaskChain#syncInt(IntTask)} but ran off main thread
      * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
      */
     @SuppressWarnings("WeakerAccess")
-    public TaskChain<?> syncCallback(AsyncExecutingGenericTask task) {
-        return add0(new TaskHolder<>(this, false, task));
+    public <R> TaskChain<R> asyncInt(IntTask<R> task) {
+        //noinspection unchecked
+        return add0(new IntTaskHolder<>(true, task));
     }
 
     /**
-     * {@link TaskChain#syncCallback(AsyncExecutingTask)} but ran off main thread
+     * {@link TaskChain#syncIntToInt(IntToIntTask)} but ran off main thread
      * @param task The task to execute
-     * @param <R> Return type that the next parameter can expect as argument type
      */
     @SuppressWarnings("WeakerAccess")
-    public <R> TaskChain<R> asyncCallback(AsyncExecutingTask<R, T> task) {
+    public TaskChain<Integer> asyncIntToInt(IntToIntTask task) {
         //noinspection unchecked
-        return add0(new TaskHolder<>(this, true, task));
+        return add0(new IntToIntTaskHolder(true, task));
     }
 
     /**
-     * {@link TaskChain#syncCallback(AsyncExecutingTask)} but ran off main thread
+     * {@link TaskChain#syncToInt(ToIntTask)} but ran on current thread the Chain was created on
      * @param task The task to execute
      */
     @SuppressWarnings("WeakerAccess")
-    public TaskChain<?> asyncCallback(AsyncExecutingGenericTask task) {
-        return add0(new TaskHolder<>(this, true, task));
+    public TaskChain<Integer> currentToInt(ToIntTask<T> task) {
+        //noinspection unchecked
+        return add0(new ToIntTaskHolder<>(null, task));
     }
 
     /**
-     * {@link TaskChain#syncCallback(AsyncExecutingTask)} but ran on current thread the Chain was created on
+     * {@link TaskChain#syncInt(IntTask)} but ran on current thread the Chain was created on
      * @param task The task to execute
      * @param <R> Return type that the next parameter can expect as argument type
      */
     @SuppressWarnings("WeakerAccess")
-    public <R> TaskChain<R> currentCallback(AsyncExecutingTask<R, T> task) {
+    public <R> TaskChain<R> currentInt(IntTask<R> task) {
         //noinspection unchecked
-        return add0(new TaskHolder<>(this, null, task));
+        return add0(new IntTaskHolder<>(null, task));
     }
 
     /**
-     * {@link TaskChain#syncCallback(AsyncExecutingTask)} but ran on current thread the Chain was created on
+     * {@link TaskChain#syncIntToInt(IntToIntTask)} but ran on current thread the Chain was created on
      * @param task The task to execute
      */
     @SuppressWarnings("WeakerAccess")
-    public TaskChain<?> currentCallback(AsyncExecutingGenericTask task) {
-        return add0(new TaskHolder<>(this, null, task));
+    public TaskChain<Integer> currentIntToInt(IntToIntTask task) {
+        //noinspection unchecked
+        return add0(new IntToIntTaskHolder(null, task));
     }
 
-    // </editor-fold>
-    // <editor-fold desc="// API Methods - Future">
-    /* ======================================================================================== */
-    // Future Tasks
-    /* ======================================================================================== */
-
     /**
-     * Takes a supplied Future, and holds processing of the chain until the future completes.
-     * The value of the Future will be passed until the next task.
-     *
-     * @param future The Future to wait until it is complete on
-     * @param <R> Return type that the next parameter can expect as argument type
+     * Execute task on main thread, with the last returned input, returning a long.
+     * The long is passed to the next task without boxing if the next task accepts a long.
+     * @param task The task to execute
      */
     @SuppressWarnings("WeakerAccess")
-    public <R> TaskChain<R> future(CompletableFuture<R> future) {
-        return currentFuture((input) -> future);
+    public TaskChain<Long> syncToLong(ToLongTask<T> task) {
+        //noinspection unchecked
+        return add0(new ToLongTaskHolder<>(false, task));
     }
 
     /**
-     * Takes multiple supplied Futures, and holds processing of the chain until the futures completes.
-     * The results of the Futures will be passed until the next task.
-     *
-     * @param futures The Futures to wait until it is complete on
+     * Execute task on main thread, with the last returned long as input, returning an output.
+     * The input is not boxed if the previous task returned a long.
+     * @param task The task to execute
      * @param <R> Return type that the next parameter can expect as argument type
      */
-    @SafeVarargs
     @SuppressWarnings("WeakerAccess")
-    public final <R> TaskChain<List<R>> futures(CompletableFuture<R>... futures) {
-        List<CompletableFuture<R>> futureList = new ArrayList<>(futures.length);
-        Collections.addAll(futureList, futures);
-        return futures(futureList);
+    public <R> TaskChain<R> syncLong(LongTask<R> task) {
+        //noinspection unchecked
+        return add0(new LongTaskHolder<>(false, task));
     }
 
     /**
-     * Takes multiple supplied Futures, and holds processing of the chain until the futures completes.
-     * The results of the Futures will be passed until the next task.
-     *
-     * @param futures The Futures to wait until it is complete on
-     * @param <R> Return type that the next parameter can expect as argument type
+     * Execute task on main thread, with the last returned long as input, returning a long, without boxing either.
+     * @param task The task to execute
      */
     @SuppressWarnings("WeakerAccess")
-    public <R> TaskChain<List<R>> futures(List<CompletableFuture<R>> futures) {
-        return currentFuture((input) -> getFuture(futures));
+    public TaskChain<Long> syncLongToLong(LongToLongTask task) {
+        //noinspection unchecked
+        return add0(new LongToLongTaskHolder(false, task));
     }
 
     /**
-     * Executes a Task on the Main thread that provides a list of Futures, and holds processing
-     * of the chain until all of the futures completes.
-     *
-     * The response of every future will be passed to the next task as a List, in the order
-     * the futures were supplied.
-     *
-     * @param task The Futures Provider Task
-     * @param <R> Return type that the next parameter can expect as argument type
+     * {@link TaskChain#syncToLong(ToLongTask)} but ran off main thread
+     * @param task The task to execute
      */
     @SuppressWarnings("WeakerAccess")
-    public <R> TaskChain<List<R>> syncFutures(Task<List<CompletableFuture<R>>, T> task) {
-        return syncFuture((input) -> getFuture(task.run(input)));
+    public TaskChain<Long> asyncToLong(ToLongTask<T> task) {
+        //noinspection unchecked
+        return add0(new ToLongTaskHolder<>(true, task));
     }
 
     /**
-     * Executes a Task off the Main thread that provides a list of Futures, and holds processing
-     * of the chain until all of the futures completes.
-     *
-     * The response of every future will be passed to the next task as a List, in the order
-     * the futures were supplied.
-     *
-     * @param task The Futures Provider Task
+     * {@link TaskChain#syncLong(LongTask)} but ran off main thread
+     * @param task The task to execute
      * @param <R> Return type that the next parameter can expect as argument type
      */
     @SuppressWarnings("WeakerAccess")
-    public <R> TaskChain<List<R>> asyncFutures(Task<List<CompletableFuture<R>>, T> task) {
-        return asyncFuture((input) -> getFuture(task.run(input)));
+    public <R> TaskChain<R> asyncLong(LongTask<R> task) {
+        //noinspection unchecked
+        return add0(new LongTaskHolder<>(true, task));
     }
 
     /**
-     * Executes a Task on the current thread that provides a list of Futures, and holds processing
-     * of the chain until all of the futures completes.
-     *
-     * The response of every future will be passed to the next task as a List, in the order
-     * the futures were supplied.
-     *
-     * @param task The Futures Provider Task
-     * @param <R> Return type that the next parameter can expect as argument type
+     * {@link TaskChain#syncLongToLong(LongToLongTask)} but ran off main thread
+     * @param task The task to execute
      */
     @SuppressWarnings("WeakerAccess")
-    public <R> TaskChain<List<R>> currentFutures(Task<List<CompletableFuture<R>>, T> task) {
-        return currentFuture((input) -> getFuture(task.run(input)));
+    public TaskChain<Long> asyncLongToLong(LongToLongTask task) {
+        //noinspection unchecked
+        return add0(new LongToLongTaskHolder(true, task));
     }
 
     /**
-     * Executes a Task on the Main thread that provides a list of Futures, and holds processing
-     * of the chain until all of the futures completes.
-     *
-     * The response of every future will be passed to the next task as a List, in the order
-     * the futures were supplied.
-     *
-     * @param task The Futures Provider Task
-     * @param <R> Return type that the next parameter can expect as argument type
+     * {@link TaskChain#syncToLong(ToLongTask)} but ran on current thread the Chain was created on
+     * @param task The task to execute
      */
     @SuppressWarnings("WeakerAccess")
-    public <R> TaskChain<List<R>> syncFirstFutures(FirstTask<List<CompletableFuture<R>>> task) {
-        return syncFuture((input) -> getFuture(task.run()));
+    public TaskChain<Long> currentToLong(ToLongTask<T> task) {
+        //noinspection unchecked
+        return add0(new ToLongTaskHolder<>(null, task));
     }
 
     /**
-     * Executes a Task off the Main thread that provides a list of Futures, and holds processing
-     * of the chain until all of the futures completes.
-     *
-     * The response of every future will be passed to the next task as a List, in the order
-     * the futures were supplied.
-     *
-     * @param task The Futures Provider Task
+     * {@link TaskChain#syncLong(LongTask)} but ran on current thread the Chain was created on
+     * @param task The task to execute
      * @param <R> Return type that the next parameter can expect as argument type
      */
     @SuppressWarnings("WeakerAccess")
-    public <R> TaskChain<List<R>> asyncFirstFutures(FirstTask<List<CompletableFuture<R>>> task) {
-        return asyncFuture((input) -> getFuture(task.run()));
+    public <R> TaskChain<R> currentLong(LongTask<R> task) {
+        //noinspection unchecked
+        return add0(new LongTaskHolder<>(null, task));
     }
 
     /**
-     * Executes a Task on the current thread that provides a list of Futures, and holds processing
-     * of the chain until all of the futures completes.
-     *
-     * The response of every future will be passed to the next task as a List, in the order
-     * the futures were supplied.
-     *
-     * @param task The Futures Provider Task
-     * @param <R> Return type that the next parameter can expect as argument type
+     * {@link TaskChain#syncLongToLong(LongToLongTask)} but ran on current thread the Chain was created on
+     * @param task The task to execute
      */
     @SuppressWarnings("WeakerAccess")
-    public <R> TaskChain<List<R>> currentFirstFutures(FirstTask<List<CompletableFuture<R>>> task) {
-        return currentFuture((input) -> getFuture(task.run()));
+    public TaskChain<Long> currentLongToLong(LongToLongTask task) {
+        //noinspection unchecked
+        return add0(new LongToLongTaskHolder(null, task));
     }
 
     /**
-     * Execute a task on the main thread, with no previous input, that will return a Future to signal completion
-     *
-     * It's important you don't perform blocking operations in this method. Only use this if
-     * the task will be scheduling a different async operation outside of the TaskChains scope.
-     *
-     *
+     * Execute task on main thread, with the last returned input, returning a double.
+     * The double is passed to the next task without boxing if the next task accepts a double.
      * @param task The task to execute
-     * @param <R> Return type that the next parameter can expect as argument type
      */
     @SuppressWarnings("WeakerAccess")
-    public <R> TaskChain<R> syncFirstFuture(FutureFirstTask<R> task) {
+    public TaskChain<Double> syncToDouble(ToDoubleTask<T> task) {
         //noinspection unchecked
-        return add0(new TaskHolder<>(this, false, task));
+        return add0(new ToDoubleTaskHolder<>(false, task));
     }
 
     /**
-     * {@link TaskChain#syncFirstFuture(FutureFirstTask)} but ran off main thread
+     * Execute task on main thread, with the last returned double as input, returning an output.
+     * The input is not boxed if the previous task returned a double.
      * @param task The task to execute
      * @param <R> Return type that the next parameter can expect as argument type
      */
     @SuppressWarnings("WeakerAccess")
-    public <R> TaskChain<R> asyncFirstFuture(FutureFirstTask<R> task) {
+    public <R> TaskChain<R> syncDouble(DoubleTask<R> task) {
         //noinspection unchecked
-        return add0(new TaskHolder<>(this, true, task));
+        return add0(new DoubleTaskHolder<>(false, task));
     }
 
     /**
-     * {@link TaskChain#syncFirstFuture(FutureFirstTask)} but ran on current thread the Chain was created on
+     * Execute task on main thread, with the last returned double as input, returning a double, without boxing either.
      * @param task The task to execute
-     * @param <R> Return type that the next parameter can expect as argument type
      */
     @SuppressWarnings("WeakerAccess")
-    public <R> TaskChain<R> currentFirstFuture(FutureFirstTask<R> task) {
+    public TaskChain<Double> syncDoubleToDouble(DoubleToDoubleTask task) {
         //noinspection unchecked
-        return add0(new TaskHolder<>(this, null, task));
+        return add0(new DoubleToDoubleTaskHolder(false, task));
     }
 
     /**
-     * Execute a task on the main thread, with the last output as the input to the future provider,
-     * that will return a Future to signal completion.
-     *
-     * It's important you don't perform blocking operations in this method. Only use this if
-     * the task will be scheduling a different async operation outside of the TaskChains scope.
-     *
+     * {@link TaskChain#syncToDouble(ToDoubleTask)} but ran off main thread
      * @param task The task to execute
-     * @param <R> Return type that the next parameter can expect as argument type
      */
     @SuppressWarnings("WeakerAccess")
-    public <R> TaskChain<R> syncFuture(FutureTask<R, T> task) {
+    public TaskChain<Double> asyncToDouble(ToDoubleTask<T> task) {
         //noinspection unchecked
-        return add0(new TaskHolder<>(this, false, task));
+        return add0(new ToDoubleTaskHolder<>(true, task));
     }
 
     /**
-     * {@link TaskChain#syncFuture(FutureTask)}, ran on main thread but no input or output
+     * {@link TaskChain#syncDouble(DoubleTask)} but ran off main thread
      * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
      */
     @SuppressWarnings("WeakerAccess")
-    public TaskChain<?> syncFuture(FutureGenericTask task) {
-        return add0(new TaskHolder<>(this, false, task));
+    public <R> TaskChain<R> asyncDouble(DoubleTask<R> task) {
+        //noinspection unchecked
+        return add0(new DoubleTaskHolder<>(true, task));
     }
 
     /**
-     * {@link TaskChain#syncFuture(FutureTask)} but the future provider is ran off main thread
+     * {@link TaskChain#syncDoubleToDouble(DoubleToDoubleTask)} but ran off main thread
      * @param task The task to execute
-     * @param <R> Return type that the next parameter can expect as argument type
      */
     @SuppressWarnings("WeakerAccess")
-    public <R> TaskChain<R> asyncFuture(FutureTask<R, T> task) {
+    public TaskChain<Double> asyncDoubleToDouble(DoubleToDoubleTask task) {
         //noinspection unchecked
-        return add0(new TaskHolder<>(this, true, task));
+        return add0(new DoubleToDoubleTaskHolder(true, task));
     }
 
     /**
-     * {@link TaskChain#syncFuture(FutureTask)} but the future provider is ran off main thread
+     * {@link TaskChain#syncToDouble(ToDoubleTask)} but ran on current thread the Chain was created on
      * @param task The task to execute
      */
     @SuppressWarnings("WeakerAccess")
-    public TaskChain<?> asyncFuture(FutureGenericTask task) {
-        return add0(new TaskHolder<>(this, true, task));
+    public TaskChain<Double> currentToDouble(ToDoubleTask<T> task) {
+        //noinspection unchecked
+        return add0(new ToDoubleTaskHolder<>(null, task));
     }
 
     /**
-     * {@link TaskChain#syncFuture(FutureTask)} but the future provider is ran on current thread the Chain was created on
+     * {@link TaskChain#syncDouble(DoubleTask)} but ran on current thread the Chain was created on
      * @param task The task to execute
      * @param <R> Return type that the next parameter can expect as argument type
      */
     @SuppressWarnings("WeakerAccess")
-    public <R> TaskChain<R> currentFuture(FutureTask<R, T> task) {
+    public <R> TaskChain<R> currentDouble(DoubleTask<R> task) {
         //noinspection unchecked
-        return add0(new TaskHolder<>(this, null, task));
+        return add0(new DoubleTaskHolder<>(null, task));
     }
 
     /**
-     * {@link TaskChain#syncFuture(FutureTask)} but the future provider is ran on current thread the Chain was created on
+     * {@link TaskChain#syncDoubleToDouble(DoubleToDoubleTask)} but ran on current thread the Chain was created on
      * @param task The task to execute
      */
     @SuppressWarnings("WeakerAccess")
-    public TaskChain<?> currentFuture(FutureGenericTask task) {
-        return add0(new TaskHolder<>(this, null, task));
+    public TaskChain<Double> currentDoubleToDouble(DoubleToDoubleTask task) {
+        //noinspection unchecked
+        return add0(new DoubleToDoubleTaskHolder(null, task));
     }
 
     // </editor-fold>
-    // <editor-fold desc="// API Methods - Normal">
+    // <editor-fold desc="// API Methods - Async Executing">
     /* ======================================================================================== */
-    // Normal Tasks
+    // Async Executing Tasks
     /* ======================================================================================== */
 
     /**
-     * Execute task on main thread, with no input, returning an output
+     * Execute a task on the main thread, with no previous input, and a callback to return the response to.
+     *
+     * It's important you don't perform blocking operations in this method. Only use this if
+     * the task will be scheduling a different sync operation outside of the TaskChains scope.
+     *
+     * Usually you could achieve the same design with a blocking API by switching to an async task
+     * for the next task and running it there.
+     *
+     * This method would primarily be for cases where you need to use an API that ONLY provides
+     * a callback style API.
+     *
      * @param task The task to execute
      * @param <R> Return type that the next parameter can expect as argument type
      */
     @SuppressWarnings("WeakerAccess")
-    public <R> TaskChain<R> syncFirst(FirstTask<R> task) {
+    public <R> TaskChain<R> syncFirstCallback(AsyncExecutingFirstTask<R> task) {
         //noinspection unchecked
-        return add0(new TaskHolder<>(this, false, task));
+        return add0(new CallbackTaskHolder<>(false, task));
     }
 
     /**
-     * {@link TaskChain#syncFirst(FirstTask)} but ran off main thread
+     * {@link TaskChain#syncFirstCallback(AsyncExecutingFirstTask)} but ran off main thread
      * @param task The task to execute
      * @param <R> Return type that the next parameter can expect as argument type
      */
     @SuppressWarnings("WeakerAccess")
-    public <R> TaskChain<R> asyncFirst(FirstTask<R> task) {
+    public <R> TaskChain<R> asyncFirstCallback(AsyncExecutingFirstTask<R> task) {
         //noinspection unchecked
-        return add0(new TaskHolder<>(this, true, task));
+        return add0(new CallbackTaskHolder<>(true, task));
     }
 
     /**
-     * {@link TaskChain#syncFirst(FirstTask)} but ran on current thread the Chain was created on
+     * {@link TaskChain#syncFirstCallback(AsyncExecutingFirstTask)} but ran on current thread the Chain was created on
      * @param task The task to execute
      * @param <R> Return type that the next parameter can expect as argument type
      */
     @SuppressWarnings("WeakerAccess")
-    public <R> TaskChain<R> currentFirst(FirstTask<R> task) {
+    public <R> TaskChain<R> currentFirstCallback(AsyncExecutingFirstTask<R> task) {
         //noinspection unchecked
-        return add0(new TaskHolder<>(this, null, task));
+        return add0(new CallbackTaskHolder<>(null, task));
     }
 
     /**
-     * Execute task on main thread, with the last returned input, returning an output
+     * Execute a task on the main thread, with the last output, and a callback to return the response to.
+     *
+     * It's important you don't perform blocking operations in this method. Only use this if
+     * the task will be scheduling a different sync operation outside of the TaskChains scope.
+     *
+     * Usually you could achieve the same design with a blocking API by switching to an async task
+     * for the next task and running it there.
+     *
+     * This method would primarily be for cases where you need to use an API that ONLY provides
+     * a callback style API.
+     *
      * @param task The task to execute
      * @param <R> Return type that the next parameter can expect as argument type
      */
     @SuppressWarnings("WeakerAccess")
-    public <R> TaskChain<R> sync(Task<R, T> task) {
+    public <R> TaskChain<R> syncCallback(AsyncExecutingTask<R, T> task) {
         //noinspection unchecked
-        return add0(new TaskHolder<>(this, false, task));
+        return add0(new CallbackTaskHolder<>(false, task));
     }
 
     /**
-     * Execute task on main thread, with no input or output
+     * {@link TaskChain#syncCallback(AsyncExecutingTask)}, ran on main thread but no input or output
      * @param task The task to execute
      */
     @SuppressWarnings("WeakerAccess")
-    public TaskChain<?> sync(GenericTask task) {
-        return add0(new TaskHolder<>(this, false, task));
+    public TaskChain<?> syncCallback(AsyncExecutingGenericTask task) {
+        return add0(new CallbackTaskHolder<>(false, task));
     }
 
     /**
-     * {@link TaskChain#sync(Task)} but ran off main thread
+     * {@link TaskChain#syncCallback(AsyncExecutingTask)} but ran off main thread
      * @param task The task to execute
      * @param <R> Return type that the next parameter can expect as argument type
      */
     @SuppressWarnings("WeakerAccess")
-    public <R> TaskChain<R> async(Task<R, T> task) {
+    public <R> TaskChain<R> asyncCallback(AsyncExecutingTask<R, T> task) {
         //noinspection unchecked
-        return add0(new TaskHolder<>(this, true, task));
+        return add0(new CallbackTaskHolder<>(true, task));
     }
 
     /**
-     * {@link TaskChain#sync(GenericTask)} but ran off main thread
+     * {@link TaskChain#syncCallback(AsyncExecutingTask)} but ran off main thread
      * @param task The task to execute
      */
     @SuppressWarnings("WeakerAccess")
-    public TaskChain<?> async(GenericTask task) {
-        return add0(new TaskHolder<>(this, true, task));
+    public TaskChain<?> asyncCallback(AsyncExecutingGenericTask task) {
+        return add0(new CallbackTaskHolder<>(true, task));
     }
 
     /**
-     * {@link TaskChain#sync(Task)} but ran on current thread the Chain was created on
+     * {@link TaskChain#syncCallback(AsyncExecutingTask)} but ran on current thread the Chain was created on
      * @param task The task to execute
      * @param <R> Return type that the next parameter can expect as argument type
      */
     @SuppressWarnings("WeakerAccess")
-    public <R> TaskChain<R> current(Task<R, T> task) {
+    public <R> TaskChain<R> currentCallback(AsyncExecutingTask<R, T> task) {
         //noinspection unchecked
-        return add0(new TaskHolder<>(this, null, task));
+        return add0(new CallbackTaskHolder<>(null, task));
     }
 
     /**
-     * {@link TaskChain#sync(GenericTask)} but ran on current thread the Chain was created on
+     * {@link TaskChain#syncCallback(AsyncExecutingTask)} but ran on current thread the Chain was created on
      * @param task The task to execute
      */
     @SuppressWarnings("WeakerAccess")
-    public TaskChain<?> current(GenericTask task) {
-        return add0(new TaskHolder<>(this, null, task));
+    public TaskChain<?> currentCallback(AsyncExecutingGenericTask task) {
+        return add0(new CallbackTaskHolder<>(null, task));
     }
 
+    // </editor-fold>
+    // <editor-fold desc="// API Methods - Future">
+    /* ======================================================================================== */
+    // Future Tasks
+    /* ======================================================================================== */
 
     /**
-     * Execute task on main thread, with the last output, and no furthur output
-     * @param task The task to execute
+     * Takes a supplied Future, and holds processing of the chain until the future completes.
+     * The value of the Future will be passed until the next task.
+     *
+     * @param future The Future to wait until it is complete on
+     * @param <R> Return type that the next parameter can expect as argument type
      */
     @SuppressWarnings("WeakerAccess")
-    public TaskChain<?> syncLast(LastTask<T> task) {
-        return add0(new TaskHolder<>(this, false, task));
+    public <R> TaskChain<R> future(CompletableFuture<R> future) {
+        return currentFuture((input, f) -> f, future);
     }
 
     /**
-     * {@link TaskChain#syncLast(LastTask)} but ran off main thread
-     * @param task The task to execute
+     * Starts a task off the main thread as soon as it is added, instead of when the chain reaches it.
+     * The chain holds processing at this point until the task completes, and its result is passed to the next task.
+     *
+     * Use this for work that does not depend on the earlier tasks, such as loading from a database,
+     * so that it runs while the earlier tasks run, or while a shared chain waits for its turn.
+     *
+     * In a {@link ChainTemplate}, the task starts each time the template is executed.
+     * The task runs apart from the chain, so it must not use the chain or its Task Data.
+     * It still runs if the chain aborts before reaching it.
+     *
+     * @param task The task to start
+     * @param <R> Return type that the next parameter can expect as argument type
      */
     @SuppressWarnings("WeakerAccess")
-    public TaskChain<?> asyncLast(LastTask<T> task) {
-        return add0(new TaskHolder<>(this, true, task));
+    public <R> TaskChain<R> asyncPrefetch(FirstTask<R> task) {
+        //noinspection unchecked
+        return add0(new PrefetchTaskHolder<>(task, this.buildsTemplate ? null : prefetch(this, task)));
     }
 
     /**
-     * {@link TaskChain#syncLast(LastTask)} but ran on current thread the Chain was created on
-     * @param task The task to execute
+     * Takes multiple supplied Futures, and holds processing of the chain until the futures completes.
+     * The results of the Futures will be passed until the next task.
+     *
+     * @param futures The Futures to wait until it is complete on
+     * @param <R> Return type that the next parameter can expect as argument type
      */
+    @SafeVarargs
     @SuppressWarnings("WeakerAccess")
-    public TaskChain<?> currentLast(LastTask<T> task) {
-        return add0(new TaskHolder<>(this, null, task));
+    public final <R> TaskChain<List<R>> futures(CompletableFuture<R>... futures) {
+        List<CompletableFuture<R>> futureList = new ArrayList<>(futures.length);
+        Collections.addAll(futureList, futures);
+        return futures(futureList);
     }
 
     /**
-     * Finished adding tasks, begins executing them.
+     * Takes multiple supplied Futures, and holds processing of the chain until the futures completes.
+     * The results of the Futures will be passed until the next task.
+     *
+     * @param futures The Futures to wait until it is complete on
+     * @param <R> Return type that the next parameter can expect as argument type
      */
     @SuppressWarnings("WeakerAccess")
-    public void execute() {
-        execute((Consumer<Boolean>) null, null);
+    public <R> TaskChain<List<R>> futures(List<CompletableFuture<R>> futures) {
+        return currentFuture((input, list) -> getFuture(getCurrentChain(), list), futures);
     }
 
     /**
-     * Finished adding tasks, begins executing them with a done notifier
-     * @param done The Callback to handle when the chain has finished completion. Argument to consumer contains finish state
+     * Executes a Task on the Main thread that provides a list of Futures, and holds processing
+     * of the chain until all of the futures completes.
+     *
+     * The response of every future will be passed to the next task as a List, in the order
+     * the futures were supplied.
+     *
+     * @param task The Futures Provider Task
+     * @param <R> Return type that the next parameter can expect as argument type
      */
     @SuppressWarnings("WeakerAccess")
-    public void execute(Runnable done) {
-        execute((finished) -> done.run(), null);
+    public <R> TaskChain<List<R>> syncFutures(Task<List<CompletableFuture<R>>, T> task) {
+        return syncFuture((input, t) -> getFuture(getCurrentChain(), t.run(input)), task);
     }
 
     /**
-     * Finished adding tasks, begins executing them with a done notifier and error handler
-     * @param done The Callback to handle when the chain has finished completion. Argument to consumer contains finish state
-     * @param errorHandler The Error handler to handle exceptions
+     * Executes a Task off the Main thread that provides a list of Futures, and holds processing
+     * of the chain until all of the futures completes.
+     *
+     * The response of every future will be passed to the next task as a List, in the order
+     * the futures were supplied.
+     *
+     * @param task The Futures Provider Task
+     * @param <R> Return type that the next parameter can expect as argument type
      */
     @SuppressWarnings("WeakerAccess")
-    public void execute(Runnable done, BiConsumer<Exception, Task<?, ?>> errorHandler) {
-        execute((finished) -> done.run(), errorHandler);
+    public <R> TaskChain<List<R>> asyncFutures(Task<List<CompletableFuture<R>>, T> task) {
+        return asyncFuture((input, t) -> getFuture(getCurrentChain(), t.run(input)), task);
     }
 
     /**
-     * Finished adding tasks, with a done notifier
-     * @param done The Callback to handle when the chain has finished completion. Argument to consumer contains finish state
+     * Executes a Task on the current thread that provides a list of Futures, and holds processing
+     * of the chain until all of the futures completes.
+     *
+     * The response of every future will be passed to the next task as a List, in the order
+     * the futures were supplied.
+     *
+     * @param task The Futures Provider Task
+     * @param <R> Return type that the next parameter can expect as argument type
      */
     @SuppressWarnings("WeakerAccess")
-    public void execute(Consumer<Boolean> done) {
-        execute(done, null);
+    public <R> TaskChain<List<R>> currentFutures(Task<List<CompletableFuture<R>>, T> task) {
+        return currentFuture((input, t) -> getFuture(getCurrentChain(), t.run(input)), task);
     }
 
     /**
-     * Finished adding tasks, begins executing them, with an error handler
-     * @param errorHandler The Error handler to handle exceptions
+     * Executes a Task on the Main thread that provides a list of Futures, and holds processing
+     * of the chain until all of the futures completes.
+     *
+     * The response of every future will be passed to the next task as a List, in the order
+     * the futures were supplied.
+     *
+     * @param task The Futures Provider Task
+     * @param <R> Return type that the next parameter can expect as argument type
      */
-    public void execute(BiConsumer<Exception, Task<?, ?>> errorHandler) {
-        execute((Consumer<Boolean>) null, errorHandler);
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<List<R>> syncFirstFutures(FirstTask<List<CompletableFuture<R>>> task) {
+        return syncFuture((input, t) -> getFuture(getCurrentChain(), t.run()), task);
     }
 
     /**
-     * Finished adding tasks, begins executing them with a done notifier and error handler
-     * @param done The Callback to handle when the chain has finished completion. Argument to consumer contains finish state
-     * @param errorHandler The Error handler to handle exceptions
+     * Executes a Task off the Main thread that provides a list of Futures, and holds processing
+     * of the chain until all of the futures completes.
+     *
+     * The response of every future will be passed to the next task as a List, in the order
+     * the futures were supplied.
+     *
+     * @param task The Futures Provider Task
+     * @param <R> Return type that the next parameter can expect as argument type
      */
-    public void execute(Consumer<Boolean> done, BiConsumer<Exception, Task<?, ?>> errorHandler) {
-        if (errorHandler == null) {
-            errorHandler = factory.getDefaultErrorHandler();
-        }
-        this.doneCallback = done;
-        this.errorHandler = errorHandler;
-        execute0();
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<List<R>> asyncFirstFutures(FirstTask<List<CompletableFuture<R>>> task) {
+        return asyncFuture((input, t) -> getFuture(getCurrentChain(), t.run()), task);
     }
 
-    // </editor-fold>
-    /* ======================================================================================== */
-    // <editor-fold desc="// Implementation Details">
-    private <A1, A2, A3> void handleAbortAction(TaskChainAbortAction<A1, A2, A3> action, A1 arg1, A2 arg2, A3 arg3) {
-        if (action != null) {
-            final TaskChain<?> prev = currentChain.get();
-            try {
-                currentChain.set(this);
-                action.onAbort(this, arg1, arg2, arg3);
-            } catch (Exception e) {
-                TaskChainUtil.logError("TaskChain Exception in Abort Action handler: " + action.getClass().getName());
-                TaskChainUtil.logError("Current Action Index was: " + currentActionIndex);
-                e.printStackTrace();
-            } finally {
-                currentChain.set(prev);
-            }
-        }
-        abort();
+    /**
+     * Executes a Task on the current thread that provides a list of Futures, and holds processing
+     * of the chain until all of the futures completes.
+     *
+     * The response of every future will be passed to the next task as a List, in the order
+     * the futures were supplied.
+     *
+     * @param task The Futures Provider Task
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<List<R>> currentFirstFutures(FirstTask<List<CompletableFuture<R>>> task) {
+        return currentFuture((input, t) -> getFuture(getCurrentChain(), t.run()), task);
+    }
+
+    /**
+     * Execute a task on the main thread, with no previous input, that will return a Future to signal completion
+     *
+     * It's important you don't perform blocking operations in this method. Only use this if
+     * the task will be scheduling a different async operation outside of the TaskChains scope.
+     *
+     *
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<R> syncFirstFuture(FutureFirstTask<R> task) {
+        //noinspection unchecked
+        return add0(new FutureTaskHolder<>(false, task));
+    }
+
+    /**
+     * {@link TaskChain#syncFirstFuture(FutureFirstTask)} but ran off main thread
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<R> asyncFirstFuture(FutureFirstTask<R> task) {
+        //noinspection unchecked
+        return add0(new FutureTaskHolder<>(true, task));
+    }
+
+    /**
+     * {@link TaskChain#syncFirstFuture(FutureFirstTask)} but ran on current thread the Chain was created on
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<R> currentFirstFuture(FutureFirstTask<R> task) {
+        //noinspection unchecked
+        return add0(new FutureTaskHolder<>(null, task));
+    }
+
+    /**
+     * Execute a task on the main thread, with the last output as the input to the future provider,
+     * that will return a Future to signal completion.
+     *
+     * It's important you don't perform blocking operations in this method. Only use this if
+     * the task will be scheduling a different async operation outside of the TaskChains scope.
+     *
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<R> syncFuture(FutureTask<R, T> task) {
+        //noinspection unchecked
+        return add0(new FutureTaskHolder<>(false, task));
+    }
+
+    /**
+     * {@link TaskChain#syncFuture(FutureTask)}, ran on main thread but no input or output
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<?> syncFuture(FutureGenericTask task) {
+        return add0(new FutureTaskHolder<>(false, task));
+    }
+
+    /**
+     * {@link TaskChain#syncFuture(FutureTask)} but the future provider is ran off main thread
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<R> asyncFuture(FutureTask<R, T> task) {
+        //noinspection unchecked
+        return add0(new FutureTaskHolder<>(true, task));
+    }
+
+    /**
+     * {@link TaskChain#syncFuture(FutureTask)} but the future provider is ran off main thread
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<?> asyncFuture(FutureGenericTask task) {
+        return add0(new FutureTaskHolder<>(true, task));
+    }
+
+    /**
+     * {@link TaskChain#syncFuture(FutureTask)} but the future provider is ran on current thread the Chain was created on
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<R> currentFuture(FutureTask<R, T> task) {
+        //noinspection unchecked
+        return add0(new FutureTaskHolder<>(null, task));
+    }
+
+    /**
+     * {@link TaskChain#syncFuture(FutureTask)} but the future provider is ran on current thread the Chain was created on
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<?> currentFuture(FutureGenericTask task) {
+        return add0(new FutureTaskHolder<>(null, task));
+    }
+
+    /**
+     * {@link TaskChain#syncFuture(FutureTask)}, with the supplied argument passed to the future provider.
+     *
+     * Passing values as arguments to a non capturing lambda or static method reference avoids
+     * allocating a new task every time the chain is built.
+     * @param task The task to execute
+     * @param arg1 Argument 1 passed to the task
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R, A1> TaskChain<R> syncFuture(FutureArg1Task<R, T, A1> task, A1 arg1) {
+        //noinspection unchecked
+        return add0(new FutureArg1TaskHolder<>(false, task, arg1));
+    }
+
+    /**
+     * {@link TaskChain#syncFuture(FutureTask)}, with the supplied arguments passed to the future provider.
+     *
+     * Passing values as arguments to a non capturing lambda or static method reference avoids
+     * allocating a new task every time the chain is built.
+     * @param task The task to execute
+     * @param arg1 Argument 1 passed to the task
+     * @param arg2 Argument 2 passed to the task
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R, A1, A2> TaskChain<R> syncFuture(FutureArg2Task<R, T, A1, A2> task, A1 arg1, A2 arg2) {
+        //noinspection unchecked
+        return add0(new FutureArg2TaskHolder<>(false, task, arg1, arg2));
+    }
+
+    /**
+     * {@link TaskChain#syncFuture(FutureTask)}, with the supplied arguments passed to the future provider.
+     *
+     * Passing values as arguments to a non capturing lambda or static method reference avoids
+     * allocating a new task every time the chain is built.
+     * @param task The task to execute
+     * @param arg1 Argument 1 passed to the task
+     * @param arg2 Argument 2 passed to the task
+     * @param arg3 Argument 3 passed to the task
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R, A1, A2, A3> TaskChain<R> syncFuture(FutureArg3Task<R, T, A1, A2, A3> task, A1 arg1, A2 arg2, A3 arg3) {
+        //noinspection unchecked
+        return add0(new FutureArg3TaskHolder<>(false, task, arg1, arg2, arg3));
+    }
+
+    /**
+     * {@link TaskChain#syncFuture(FutureArg1Task, Object)} but the future provider is ran off main thread
+     * @param task The task to execute
+     * @param arg1 Argument 1 passed to the task
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R, A1> TaskChain<R> asyncFuture(FutureArg1Task<R, T, A1> task, A1 arg1) {
+        //noinspection unchecked
+        return add0(new FutureArg1TaskHolder<>(true, task, arg1));
+    }
+
+    /**
+     * {@link TaskChain#syncFuture(FutureArg2Task, Object, Object)} but the future provider is ran off main thread
+     * @param task The task to execute
+     * @param arg1 Argument 1 passed to the task
+     * @param arg2 Argument 2 passed to the task
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R, A1, A2> TaskChain<R> asyncFuture(FutureArg2Task<R, T, A1, A2> task, A1 arg1, A2 arg2) {
+        //noinspection unchecked
+        return add0(new FutureArg2TaskHolder<>(true, task, arg1, arg2));
+    }
+
+    /**
+     * {@link TaskChain#syncFuture(FutureArg3Task, Object, Object, Object)} but the future provider is ran off main thread
+     * @param task The task to execute
+     * @param arg1 Argument 1 passed to the task
+     * @param arg2 Argument 2 passed to the task
+     * @param arg3 Argument 3 passed to the task
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R, A1, A2, A3> TaskChain<R> asyncFuture(FutureArg3Task<R, T, A1, A2, A3> task, A1 arg1, A2 arg2, A3 arg3) {
+        //noinspection unchecked
+        return add0(new FutureArg3TaskHolder<>(true, task, arg1, arg2, arg3));
+    }
+
+    /**
+     * {@link TaskChain#syncFuture(FutureArg1Task, Object)} but the future provider is ran on current thread the Chain was created on
+     * @param task The task to execute
+     * @param arg1 Argument 1 passed to the task
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R, A1> TaskChain<R> currentFuture(FutureArg1Task<R, T, A1> task, A1 arg1) {
+        //noinspection unchecked
+        return add0(new FutureArg1TaskHolder<>(null, task, arg1));
+    }
+
+    /**
+     * {@link TaskChain#syncFuture(FutureArg2Task, Object, Object)} but the future provider is ran on current thread the Chain was created on
+     * @param task The task to execute
+     * @param arg1 Argument 1 passed to the task
+     * @param arg2 Argument 2 passed to the task
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R, A1, A2> TaskChain<R> currentFuture(FutureArg2Task<R, T, A1, A2> task, A1 arg1, A2 arg2) {
+        //noinspection unchecked
+        return add0(new FutureArg2TaskHolder<>(null, task, arg1, arg2));
+    }
+
+    /**
+     * {@link TaskChain#syncFuture(FutureArg3Task, Object, Object, Object)} but the future provider is ran on current thread the Chain was created on
+     * @param task The task to execute
+     * @param arg1 Argument 1 passed to the task
+     * @param arg2 Argument 2 passed to the task
+     * @param arg3 Argument 3 passed to the task
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R, A1, A2, A3> TaskChain<R> currentFuture(FutureArg3Task<R, T, A1, A2, A3> task, A1 arg1, A2 arg2, A3 arg3) {
+        //noinspection unchecked
+        return add0(new FutureArg3TaskHolder<>(null, task, arg1, arg2, arg3));
+    }
+
+    // </editor-fold>
+    // <editor-fold desc="// API Methods - Normal">
+    /* ======================================================================================== */
+    // Normal Tasks
+    /* ======================================================================================== */
+
+    /**
+     * Execute task on main thread, with no input, returning an output
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<R> syncFirst(FirstTask<R> task) {
+        //noinspection unchecked
+        return add0(new FirstTaskHolder<>(false, task));
+    }
+
+    /**
+     * {@link TaskChain#syncFirst(FirstTask)} but ran off main thread
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<R> asyncFirst(FirstTask<R> task) {
+        //noinspection unchecked
+        return add0(new FirstTaskHolder<>(true, task));
+    }
+
+    /**
+     * {@link TaskChain#syncFirst(FirstTask)} but ran on current thread the Chain was created on
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<R> currentFirst(FirstTask<R> task) {
+        //noinspection unchecked
+        return add0(new FirstTaskHolder<>(null, task));
+    }
+
+    /**
+     * Execute task on main thread, with the last returned input, returning an output
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<R> sync(Task<R, T> task) {
+        //noinspection unchecked
+        return add0(TaskHolder.create(false, task));
+    }
+
+    /**
+     * Execute task on main thread, with no input or output
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<?> sync(GenericTask task) {
+        return add0(new GenericTaskHolder(false, task));
+    }
+
+    /**
+     * {@link TaskChain#sync(Task)}, but the task receives the executing chain as an argument.
+     * Named apart from sync so that method references to overloaded methods, such as Integer::parseInt, stay unambiguous
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<R> syncWithChain(ChainTask<R, T> task) {
+        //noinspection unchecked
+        return add0(new ChainTaskHolder<>(false, task));
+    }
+
+    /**
+     * {@link TaskChain#sync(Task)} but ran off main thread
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<R> async(Task<R, T> task) {
+        //noinspection unchecked
+        return add0(TaskHolder.create(true, task));
+    }
+
+    /**
+     * {@link TaskChain#sync(GenericTask)} but ran off main thread
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<?> async(GenericTask task) {
+        return add0(new GenericTaskHolder(true, task));
+    }
+
+    /**
+     * {@link TaskChain#async(Task)}, but the task receives the executing chain as an argument
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<R> asyncWithChain(ChainTask<R, T> task) {
+        //noinspection unchecked
+        return add0(new ChainTaskHolder<>(true, task));
+    }
+
+    /**
+     * {@link TaskChain#sync(Task)} but ran on current thread the Chain was created on
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<R> current(Task<R, T> task) {
+        //noinspection unchecked
+        return add0(TaskHolder.create(null, task));
+    }
+
+    /**
+     * {@link TaskChain#sync(GenericTask)} but ran on current thread the Chain was created on
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<?> current(GenericTask task) {
+        return add0(new GenericTaskHolder(null, task));
+    }
+
+    /**
+     * {@link TaskChain#current(Task)}, but the task receives the executing chain as an argument
+     * @param task The task to execute
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R> TaskChain<R> currentWithChain(ChainTask<R, T> task) {
+        //noinspection unchecked
+        return add0(new ChainTaskHolder<>(null, task));
+    }
+
+
+    /**
+     * Execute task on main thread, with the last returned input and the supplied argument, returning an output.
+     *
+     * Passing values as arguments to a non capturing lambda or static method reference avoids
+     * allocating a new task every time the chain is built.
+     * @param task The task to execute
+     * @param arg1 Argument 1 passed to the task
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R, A1> TaskChain<R> sync(Arg1Task<R, T, A1> task, A1 arg1) {
+        //noinspection unchecked
+        return add0(new Arg1TaskHolder<>(false, task, arg1));
+    }
+
+    /**
+     * Execute task on main thread, with the last returned input and the supplied arguments, returning an output.
+     *
+     * Passing values as arguments to a non capturing lambda or static method reference avoids
+     * allocating a new task every time the chain is built.
+     * @param task The task to execute
+     * @param arg1 Argument 1 passed to the task
+     * @param arg2 Argument 2 passed to the task
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R, A1, A2> TaskChain<R> sync(Arg2Task<R, T, A1, A2> task, A1 arg1, A2 arg2) {
+        //noinspection unchecked
+        return add0(new Arg2TaskHolder<>(false, task, arg1, arg2));
+    }
+
+    /**
+     * Execute task on main thread, with the last returned input and the supplied arguments, returning an output.
+     *
+     * Passing values as arguments to a non capturing lambda or static method reference avoids
+     * allocating a new task every time the chain is built.
+     * @param task The task to execute
+     * @param arg1 Argument 1 passed to the task
+     * @param arg2 Argument 2 passed to the task
+     * @param arg3 Argument 3 passed to the task
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R, A1, A2, A3> TaskChain<R> sync(Arg3Task<R, T, A1, A2, A3> task, A1 arg1, A2 arg2, A3 arg3) {
+        //noinspection unchecked
+        return add0(new Arg3TaskHolder<>(false, task, arg1, arg2, arg3));
+    }
+
+    /**
+     * {@link TaskChain#sync(Arg1Task, Object)} but ran off main thread
+     * @param task The task to execute
+     * @param arg1 Argument 1 passed to the task
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R, A1> TaskChain<R> async(Arg1Task<R, T, A1> task, A1 arg1) {
+        //noinspection unchecked
+        return add0(new Arg1TaskHolder<>(true, task, arg1));
+    }
+
+    /**
+     * {@link TaskChain#sync(Arg2Task, Object, Object)} but ran off main thread
+     * @param task The task to execute
+     * @param arg1 Argument 1 passed to the task
+     * @param arg2 Argument 2 passed to the task
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R, A1, A2> TaskChain<R> async(Arg2Task<R, T, A1, A2> task, A1 arg1, A2 arg2) {
+        //noinspection unchecked
+        return add0(new Arg2TaskHolder<>(true, task, arg1, arg2));
+    }
+
+    /**
+     * {@link TaskChain#sync(Arg3Task, Object, Object, Object)} but ran off main thread
+     * @param task The task to execute
+     * @param arg1 Argument 1 passed to the task
+     * @param arg2 Argument 2 passed to the task
+     * @param arg3 Argument 3 passed to the task
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R, A1, A2, A3> TaskChain<R> async(Arg3Task<R, T, A1, A2, A3> task, A1 arg1, A2 arg2, A3 arg3) {
+        //noinspection unchecked
+        return add0(new Arg3TaskHolder<>(true, task, arg1, arg2, arg3));
+    }
+
+    /**
+     * {@link TaskChain#sync(Arg1Task, Object)} but ran on current thread the Chain was created on
+     * @param task The task to execute
+     * @param arg1 Argument 1 passed to the task
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R, A1> TaskChain<R> current(Arg1Task<R, T, A1> task, A1 arg1) {
+        //noinspection unchecked
+        return add0(new Arg1TaskHolder<>(null, task, arg1));
+    }
+
+    /**
+     * {@link TaskChain#sync(Arg2Task, Object, Object)} but ran on current thread the Chain was created on
+     * @param task The task to execute
+     * @param arg1 Argument 1 passed to the task
+     * @param arg2 Argument 2 passed to the task
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R, A1, A2> TaskChain<R> current(Arg2Task<R, T, A1, A2> task, A1 arg1, A2 arg2) {
+        //noinspection unchecked
+        return add0(new Arg2TaskHolder<>(null, task, arg1, arg2));
+    }
+
+    /**
+     * {@link TaskChain#sync(Arg3Task, Object, Object, Object)} but ran on current thread the Chain was created on
+     * @param task The task to execute
+     * @param arg1 Argument 1 passed to the task
+     * @param arg2 Argument 2 passed to the task
+     * @param arg3 Argument 3 passed to the task
+     * @param <R> Return type that the next parameter can expect as argument type
+     */
+    @SuppressWarnings("WeakerAccess")
+    public <R, A1, A2, A3> TaskChain<R> current(Arg3Task<R, T, A1, A2, A3> task, A1 arg1, A2 arg2, A3 arg3) {
+        //noinspection unchecked
+        return add0(new Arg3TaskHolder<>(null, task, arg1, arg2, arg3));
+    }
+
+    /**
+     * Execute task on main thread, with the last output, and no furthur output
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<?> syncLast(LastTask<T> task) {
+        return add0(new LastTaskHolder<>(false, task));
+    }
+
+    /**
+     * {@link TaskChain#syncLast(LastTask)} but ran off main thread
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<?> asyncLast(LastTask<T> task) {
+        return add0(new LastTaskHolder<>(true, task));
+    }
+
+    /**
+     * {@link TaskChain#syncLast(LastTask)} but ran on current thread the Chain was created on
+     * @param task The task to execute
+     */
+    @SuppressWarnings("WeakerAccess")
+    public TaskChain<?> currentLast(LastTask<T> task) {
+        return add0(new LastTaskHolder<>(null, task));
+    }
+
+    /**
+     * Finished adding tasks, begins executing them.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public void execute() {
+        execute((Consumer<Boolean>) null, null);
+    }
+
+    /**
+     * Finished adding tasks, begins executing them with a done notifier
+     * @param done The Callback to handle when the chain has finished completion. Argument to consumer contains finish state
+     */
+    @SuppressWarnings("WeakerAccess")
+    public void execute(Runnable done) {
+        execute((finished) -> done.run(), null);
+    }
+
+    /**
+     * Finished adding tasks, begins executing them with a done notifier and error handler
+     * @param done The Callback to handle when the chain has finished completion. Argument to consumer contains finish state
+     * @param errorHandler The Error handler to handle exceptions
+     */
+    @SuppressWarnings("WeakerAccess")
+    public void execute(Runnable done, BiConsumer<Exception, Task<?, ?>> errorHandler) {
+        execute((finished) -> done.run(), errorHandler);
+    }
+
+    /**
+     * Finished adding tasks, with a done notifier
+     * @param done The Callback to handle when the chain has finished completion. Argument to consumer contains finish state
+     */
+    @SuppressWarnings("WeakerAccess")
+    public void execute(Consumer<Boolean> done) {
+        execute(done, null);
+    }
+
+    /**
+     * Finished adding tasks, begins executing them, with an error handler
+     * @param errorHandler The Error handler to handle exceptions
+     */
+    public void execute(BiConsumer<Exception, Task<?, ?>> errorHandler) {
+        execute((Consumer<Boolean>) null, errorHandler);
+    }
+
+    /**
+     * Finished adding tasks, begins executing them with a done notifier and error handler
+     * @param done The Callback to handle when the chain has finished completion. Argument to consumer contains finish state
+     * @param errorHandler The Error handler to handle exceptions
+     */
+    public void execute(Consumer<Boolean> done, BiConsumer<Exception, Task<?, ?>> errorHandler) {
+        if (errorHandler == null) {
+            errorHandler = factory.getDefaultErrorHandler();
+        }
+        this.doneCallback = done;
+        this.errorHandler = errorHandler;
+        execute0();
+    }
+
+    // </editor-fold>
+    /* ======================================================================================== */
+    // <editor-fold desc="// Implementation Details">
+    private <A1, A2, A3> void handleAbortAction(TaskChainAbortAction<A1, A2, A3> action, A1 arg1, A2 arg2, A3 arg3) {
+        if (action != null) {
+            final TaskChain<?>[] current = currentChain.get();
+            final TaskChain<?> prev = current[0];
+            try {
+                current[0] = this;
+                action.onAbort(this, arg1, arg2, arg3);
+            } catch (Exception e) {
+                TaskChainUtil.logError("TaskChain Exception in Abort Action handler: " + action.getClass().getName());
+                TaskChainUtil.logError("Current Action Index was: " + currentActionIndex);
+                e.printStackTrace();
+            } finally {
+                current[0] = prev;
+            }
+        }
+    }
+
+    void execute0() {
+        start();
+        factory.getExecutionEngine().execute(this);
+    }
+
+    /**
+     * Marks the chain as executing without starting its first task, for {@link TaskChainFactory#executeAll(java.util.Collection)}
+     */
+    void start() {
+        if (!STATE.compareAndSet(this, BUILDING, EXECUTING)) {
+            throw new RuntimeException("Already executed");
+        }
+        if (this.errorHandler == null) {
+            this.errorHandler = factory.getDefaultErrorHandler();
+        }
+        if (!this.tasksFused) {
+            this.tasksFused = true;
+            fuseTasks(this.tasks, this.taskCount);
+        }
+    }
+
+    void done(boolean finished) {
+        if (this.doneCallback != null) {
+            final TaskChain<?>[] current = currentChain.get();
+            final TaskChain<?> prev = current[0];
+            try {
+                current[0] = this;
+                this.doneCallback.accept(finished);
+            } catch (Exception e) {
+                this.handleError(e, null);
+            } finally {
+                current[0] = prev;
+            }
+        }
+        if (this.pooled) {
+            this.recycle();
+        }
+    }
+
+    /**
+     * Executes the tasks of a {@link ChainTemplate}, starting with the supplied seed value
+     */
+    void useTemplateTasks(TaskHolder<?, ?>[] tasks, Object seed) {
+        this.tasks = tasks;
+        this.taskCount = tasks.length;
+        this.tasksFused = true;
+        this.templateTasks = true;
+        this.previous = seed;
+    }
+
+    /**
+     * Starts the prefetch tasks of a {@link ChainTemplate} for this execution.
+     * The holders of those tasks are copied, so the tasks of the template are left untouched.
+     */
+    void startPrefetch(int[] prefetchTasks) {
+        final TaskHolder<?, ?>[] tasks = this.tasks.clone();
+        for (int index : prefetchTasks) {
+            final TaskHolder<?, ?> template = tasks[index];
+            final TaskHolder<?, ?> holder = ((PrefetchTaskHolder<?>) template).start(this);
+            holder.segmentEnd = template.segmentEnd;
+            holder.segmentTracksCurrentChain = template.segmentTracksCurrentChain;
+            tasks[index] = holder;
+        }
+        this.tasks = tasks;
+    }
+
+    /**
+     * @return The indexes of the prefetch tasks of a {@link ChainTemplate}
+     */
+    static int[] findPrefetchTasks(TaskHolder<?, ?>[] tasks) {
+        int count = 0;
+        for (TaskHolder<?, ?> task : tasks) {
+            if (task instanceof PrefetchTaskHolder) {
+                count++;
+            }
+        }
+        final int[] prefetchTasks = new int[count];
+        for (int i = 0, j = 0; j < count; i++) {
+            if (tasks[i] instanceof PrefetchTaskHolder) {
+                prefetchTasks[j++] = i;
+            }
+        }
+        return prefetchTasks;
+    }
+
+    /**
+     * Runs a prefetch task off the main thread, on the worker for this chain if there is an {@link AffinityAsyncQueue}
+     */
+    private static <R> CompletableFuture<R> prefetch(TaskChain<?> chain, FirstTask<R> task) {
+        final CompletableFuture<R> future = new CompletableFuture<>();
+        final Runnable run = () -> {
+            try {
+                future.complete(task.run());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        };
+        if (chain.factory.shutdown) {
+            run.run();
+        } else {
+            chain.postAsync(run);
+        }
+        return future;
+    }
+
+    /**
+     * Takes a chain that was released to the pool, and allows building it again
+     */
+    void reuse() {
+        this.pooled = true;
+        STATE.set(this, BUILDING);
+    }
+
+    /**
+     * Clears everything from the previous execution and returns this chain to its pool.
+     * The chain stays in the done phase until it is reused, so a stale reference can not add tasks to it.
+     */
+    private void recycle() {
+        if (this.templateTasks) {
+            this.tasks = NO_TASKS;
+            this.templateTasks = false;
+        } else {
+            Arrays.fill(this.tasks, 0, this.taskCount, null);
+        }
+        this.taskCount = 0;
+        this.tasksFused = false;
+        this.currentActionIndex = 0;
+        this.async = false;
+        this.previous = null;
+        this.primitive = 0;
+        this.doneCallback = null;
+        this.errorHandler = null;
+        this.affinity = null;
+        final Map<String, Object> taskMap = this.taskMap;
+        if (taskMap != null) {
+            taskMap.clear();
+        }
+        final Object[] taskData = this.taskData;
+        if (taskData != null) {
+            Arrays.fill(taskData, null);
+        }
+        this.generation++;
+        this.pooled = false;
+        final ChainPool pool = factory.getChainPool();
+        if (pool != null) {
+            pool.release(this);
+        }
+    }
+
+    /**
+     * Stops this chain from accepting or executing tasks, and hands the added tasks to a {@link ChainTemplate}
+     */
+    TaskHolder<?, ?>[] toTemplateTasks() {
+        if (!STATE.compareAndSet(this, BUILDING, DONE)) {
+            throw new RuntimeException("Already executed");
+        }
+        final TaskHolder<?, ?>[] tasks = Arrays.copyOf(this.tasks, this.taskCount);
+        fuseTasks(tasks, tasks.length);
+        return tasks;
+    }
+
+    /**
+     * Groups each run of tasks that complete on the thread they are ran on, and that would not switch threads
+     * between each other, into a segment that is claimed and executed as a single unit.
+     *
+     * A segment takes the thread affinity of its first task, and may only contain tasks with the same affinity,
+     * or tasks that run on the current thread.
+     */
+    private static void fuseTasks(TaskHolder<?, ?>[] tasks, int count) {
+        TaskHolder<?, ?> next = null;
+        for (int i = count - 1; i >= 0; i--) {
+            final TaskHolder<?, ?> holder = tasks[i];
+            holder.segmentEnd = i + 1;
+            holder.segmentTracksCurrentChain = (holder.flags & TRACK_CURRENT_CHAIN) != 0;
+            final int thread = next != null ? next.flags & THREAD_MASK : RUNS_ON_CURRENT;
+            if ((holder.flags & COMPLETES_INLINE) != 0 && next != null && (next.flags & COMPLETES_INLINE) != 0
+                    && (thread == RUNS_ON_CURRENT || thread == (holder.flags & THREAD_MASK))) {
+                holder.segmentEnd = next.segmentEnd;
+                holder.segmentTracksCurrentChain |= next.segmentTracksCurrentChain;
+            }
+            next = holder;
+        }
+    }
+
+    /**
+     * Copies fused template tasks, replacing the first holder of each segment of two or more tasks with a
+     * {@link CompiledSegmentHolder} that runs the whole segment, see {@link ChainTemplate#compile()}
+     *
+     * Returns the tasks unchanged when {@link SegmentCompiler#isSupported()} is false.
+     */
+    static TaskHolder<?, ?>[] compileSegments(TaskHolder<?, ?>[] tasks) {
+        if (!SegmentCompiler.isSupported()) {
+            return tasks;
+        }
+        final TaskHolder<?, ?>[] compiled = tasks.clone();
+        for (int i = 0; i < compiled.length; i = tasks[i].segmentEnd) {
+            final TaskHolder<?, ?> holder = tasks[i];
+            if ((holder.flags & COMPILED_SEGMENT) == 0 && (holder.flags & COMPLETES_INLINE) != 0 && holder.segmentEnd - i > 1) {
+                final TaskHolder<?, ?> segment = new CompiledSegmentHolder<>(holder, SegmentCompiler.compile(tasks, i, holder.segmentEnd));
+                segment.segmentEnd = holder.segmentEnd;
+                segment.segmentTracksCurrentChain = holder.segmentTracksCurrentChain;
+                compiled[i] = segment;
+            }
+        }
+        return compiled;
+    }
+
+    static boolean hasCompiledSegments(TaskHolder<?, ?>[] tasks) {
+        for (TaskHolder<?, ?> holder : tasks) {
+            if ((holder.flags & COMPILED_SEGMENT) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings({"unchecked", "WeakerAccess"})
+    protected <R> TaskChain<R> add0(TaskHolder<?,?> task) {
+        if (this.state != BUILDING) {
+            throw new RuntimeException("TaskChain is executing");
+        }
+        if (this.taskCount == this.tasks.length) {
+            this.tasks = Arrays.copyOf(this.tasks, Math.max(8, this.taskCount * 2));
+        }
+        this.tasks[this.taskCount++] = task;
+
+        return (TaskChain<R>) this;
+    }
+
+    /**
+     * Starts executing the tasks with the default {@link ExecutionEngine}
+     */
+    void dispatch() {
+        async = !factory.getImplementation().isMainThread();
+        nextTask();
+    }
+
+    /**
+     * Fires off the next task, and switches between Async/Sync as necessary.
+     *
+     * Tasks that complete on the thread that ran them are continued by this loop instead of
+     * recursing back into nextTask, so long chains execute at a constant stack depth.
+     */
+    private void nextTask() {
+        //noinspection StatementWithEmptyBody
+        while (this.runNextTask()) {}
+    }
+
+    /**
+     * Runs the next task if it can run on this thread, otherwise posts it to the correct thread.
+     *
+     * @return If the task completed on this thread, and the next task should be fired
+     */
+    private boolean runNextTask() {
+        int state;
+        int index;
+        TaskHolder<?, ?> holder;
+        for (;;) {
+            state = this.state;
+            if ((state & PHASE_MASK) != EXECUTING) {
+                // Aborted while the previous task was completing
+                return false;
+            }
+            index = state >>> PHASE_BITS;
+            if (index >= this.taskCount) {
+                if (STATE.compareAndSet(this, state, DONE | (index << PHASE_BITS))) {
+                    this.previous = null;
+                    // All Done!
+                    this.done(true);
+                    return false;
+                }
+                continue;
+            }
+            holder = this.tasks[index];
+            // Claims the whole segment the task belongs to
+            if (STATE.compareAndSet(this, state, EXECUTING | (holder.segmentEnd << PHASE_BITS))) {
+                break;
+            }
+        }
+
+        final int thread = holder.flags & THREAD_MASK;
+        if (thread == RUNS_ON_CURRENT || factory.shutdown) {
+            return this.runTasks(holder, index);
+        } else if (thread == RUNS_ASYNC) {
+            if (this.async) {
+                return this.runTasks(holder, index);
+            } else {
+                this.currentActionIndex = index;
+                this.postAsync(this.getResumeTask());
+            }
+        } else {
+            if (this.async) {
+                this.currentActionIndex = index;
+                factory.getImplementation().postToMain(this.getResumeTask());
+            } else {
+                return this.runTasks(holder, index);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Posts a task off the main thread, to the worker for this chain if the factory uses an {@link AffinityAsyncQueue}
+     */
+    void postAsync(Runnable task) {
+        final AffinityAsyncQueue affinityQueue = factory.getAffinityQueue();
+        if (affinityQueue != null) {
+            affinityQueue.postAsync(task, getAffinityHash());
+        } else {
+            factory.getImplementation().postAsync(task);
+        }
+    }
+
+    /**
+     * Posts the callback of a delay task that expired on the timing wheel of the factory, to continue its chain
+     * through {@link #postAsync(Runnable)} like any other async task
+     */
+    static void postDelay(Runnable callback) {
+        ((TaskCallback<?>) callback).chain.postAsync(callback);
+    }
+
+    int getAffinityHash() {
+        return affinity != null ? affinity.hashCode() : System.identityHashCode(this);
+    }
+
+    /**
+     * Checks if a Future or Callback task that completed on this thread should continue on the async queue,
+     * per the {@link ContinuationPolicy} of the factory. When the next task runs on the main thread,
+     * the chain already switches threads once by posting it there. Threads of TaskChain's own async queues
+     * are already where the chain would be posted to.
+     */
+    private boolean leavesCompletingThread(boolean isMainThread) {
+        if (isMainThread || factory.shutdown || factory.getContinuationPolicy() != ContinuationPolicy.TARGET_EXECUTOR) {
+            return false;
+        }
+        final int next = this.tasks[this.currentActionIndex].segmentEnd;
+        return (next >= this.taskCount || (this.tasks[next].flags & THREAD_MASK) != RUNS_ON_MAIN)
+                && !TaskChainUtil.isTaskChainThread();
+    }
+
+    /**
+     * Only one task of a chain is ever waiting to be ran on another thread, so a single task is reused for
+     * every switch between threads instead of allocating a new one each time.
+     */
+    private Runnable getResumeTask() {
+        Runnable resumeTask = this.resumeTask;
+        if (resumeTask == null) {
+            resumeTask = this.resumeTask = this::resume;
+        }
+        return resumeTask;
+    }
+
+    /**
+     * Runs the task posted by {@link #runNextTask()} on the thread it was posted to.
+     * The index of the task is held in {@link #currentActionIndex} while it is waiting
+     */
+    private void resume() {
+        final int index = this.currentActionIndex;
+        final TaskHolder<?, ?> holder = this.tasks[index];
+        this.async = (holder.flags & THREAD_MASK) == RUNS_ASYNC;
+        if (this.runTasks(holder, index)) {
+            this.nextTask();
+        }
+    }
+
+    /**
+     * Runs the task at the index, along with the rest of its segment
+     *
+     * @return If the tasks completed on this thread, and the next task should be fired
+     */
+    private boolean runTasks(TaskHolder<?, ?> holder, int index) {
+        if ((holder.flags & COMPLETES_INLINE) != 0) {
+            return this.runSegment(index, holder.segmentEnd);
+        }
+        return ((AsyncTaskHolder<?, ?>) holder).run(this, index, new TaskCallback<>(this));
+    }
+
+    /**
+     * Runs a segment of tasks that all complete on this thread, passing each result directly to the next task.
+     * Aborts are checked for between each task.
+     *
+     * @return If the segment completed, and the next task should be fired
+     */
+    private boolean runSegment(int start, int end) {
+        Object value = this.previous;
+        this.previous = null;
+        final TaskHolder<?, ?> first = this.tasks[start];
+        final boolean trackCurrentChain = first.segmentTracksCurrentChain;
+        final TaskChain<?>[] current = trackCurrentChain ? currentChain.get() : null;
+        final TaskChain<?> prevChain = trackCurrentChain ? current[0] : null;
+        try {
+            if (trackCurrentChain) {
+                current[0] = this;
+            }
+            if ((first.flags & COMPILED_SEGMENT) != 0) {
+                value = ((CompiledSegmentHolder<?, ?>) first).runInline(this, value);
+            } else {
+                for (int i = start; i < end && value != ABORT; i++) {
+                    value = this.runInline((InlineTaskHolder<?, ?>) this.tasks[i], i, value);
+                }
+            }
+            if (value == ABORT) {
+                this.abortExecutingChain();
+                return false;
+            }
+            this.previous = value;
+            return true;
+        } catch (Throwable e) {
+            //noinspection ConstantConditions
+            if (!(e instanceof AbortChainException)) {
+                this.handleError(e, this.tasks[this.currentActionIndex].task);
+            }
+            this.abortExecutingChain();
+            return false;
+        } finally {
+            if (trackCurrentChain) {
+                current[0] = prevChain;
+            }
+        }
+    }
+
+    /**
+     * Runs a single task of a segment
+     *
+     * @return The result of the task, or {@link #ABORT} if the chain was aborted before or by the task
+     */
+    private Object runInline(InlineTaskHolder<?, ?> holder, int index, Object value) {
+        if ((this.state & PHASE_MASK) != EXECUTING) {
+            return ABORT;
+        }
+        this.currentActionIndex = index;
+        if (value instanceof PrimitiveValue && (holder.flags & PRIMITIVE_INPUT) == 0) {
+            value = ((PrimitiveValue) value).box(this.primitive);
+        }
+        return holder.runInline(this, value);
+    }
+
+    /**
+     * Called by the classes generated by {@link SegmentCompiler} before each task, as
+     * {@link #runInline(InlineTaskHolder, int, Object)} does before calling the holder
+     *
+     * @return The input of the task, or {@link #ABORT} if the chain was aborted before or by the previous task
+     */
+    static Object enterCompiledTask(TaskChain<?> chain, int index, Object value, boolean takesPrimitive) {
+        if (value == ABORT || (chain.state & PHASE_MASK) != EXECUTING) {
+            return ABORT;
+        }
+        chain.currentActionIndex = index;
+        if (value instanceof PrimitiveValue && !takesPrimitive) {
+            return ((PrimitiveValue) value).box(chain.primitive);
+        }
+        return value;
+    }
+
+    private void handleError(Throwable throwable, Task<?, ?> task) {
+        Exception e = throwable instanceof Exception ? (Exception) throwable : new Exception(throwable);
+        if (errorHandler != null) {
+            final TaskChain<?>[] current = currentChain.get();
+            final TaskChain<?> prev = current[0];
+            try {
+                current[0] = this;
+                errorHandler.accept(e, task);
+            } catch (Exception e2) {
+                TaskChainUtil.logError("TaskChain Exception in the error handler!" + e2.getMessage());
+                TaskChainUtil.logError("Current Action Index was: " + currentActionIndex);
+                e.printStackTrace();
+            } finally {
+                current[0] = prev;
+            }
+        } else {
+            TaskChainUtil.logError("TaskChain Exception on " + (task != null ? task.getClass().getName() : "Done Hander") + ": " + e.getMessage());
+            TaskChainUtil.logError("Current Action Index was: " + currentActionIndex);
+            e.printStackTrace();
+        }
+    }
+
+    private void abortExecutingChain() {
+        int state;
+        do {
+            state = this.state;
+            if ((state & PHASE_MASK) != EXECUTING) {
+                // Already finished or aborted, done was handled there
+                return;
+            }
+        } while (!STATE.compareAndSet(this, state, ABORTED | (state & ~PHASE_MASK)));
+        this.previous = null;
+        this.done(false);
+    }
+
+    private static <R> CompletableFuture<List<R>> getFuture(TaskChain<?> chain, List<CompletableFuture<R>> futures) {
+        CompletableFuture<List<R>> onDone = new CompletableFuture<>();
+        CompletableFuture<?>[] futureArray = new CompletableFuture<?>[futures.size()];
+        CompletableFuture.allOf(futures.toArray(futureArray)).whenComplete((aVoid, throwable) -> {
+            if (throwable != null) {
+                onDone.completeExceptionally(throwable);
+            } else {
+                boolean error = false;
+                final List<R> results = new ArrayList<>(futures.size());
+                for (CompletableFuture<R> f : futures) {
+                    try {
+                        results.add(f.join());
+                    } catch (Exception e) {
+                        error = true;
+                        chain.handleError(e, chain.tasks[chain.currentActionIndex].task);
+                        results.add(null);
+                    }
+                }
+                if (error) {
+                    onDone.completeExceptionally(new Exception("Future Dependant had an exception"));
+                } else {
+                    onDone.complete(results);
+                }
+            }
+        });
+        return onDone;
+    }
+
+    // </editor-fold>
+    /* ======================================================================================== */
+    // <editor-fold desc="// Stages">
+    /*
+     * Used by engines that pass control between tasks themselves. A stage is a segment of tasks that
+     * complete on the same thread, or a single Future or Callback task. The result of each stage is
+     * kept in previous, so the engine only needs to order the stages.
+     */
+
+    /**
+     * @return The index of the first task of the stage after the stage starting at the index
+     */
+    int getStageEnd(int index) {
+        return this.tasks[index].segmentEnd;
+    }
+
+    /**
+     * @return The thread the stage starting at the index runs on
+     */
+    int getStageThread(int index) {
+        return this.tasks[index].flags & THREAD_MASK;
+    }
+
+    int getTaskCount() {
+        return this.taskCount;
+    }
+
+    /**
+     * Marks the stage starting at the index as the one being handed to another thread, so that an error
+     * before it runs, such as the thread rejecting it, is reported for the first task of the stage
+     */
+    void dispatchingStage(int index) {
+        this.currentActionIndex = index;
+    }
+
+    TaskChainFactory getFactory() {
+        return this.factory;
+    }
+
+    /**
+     * Runs the stage starting at the index.
+     *
+     * @return A future that completes once the stage has completed
+     * @throws CompletionException If the chain was aborted. The chain has already handled the abort
+     */
+    CompletableFuture<Void> runStage(int index) {
+        if ((this.state & PHASE_MASK) != EXECUTING) {
+            throw STAGE_ABORTED;
+        }
+        final TaskHolder<?, ?> holder = this.tasks[index];
+        if ((holder.flags & COMPLETES_INLINE) != 0) {
+            if (this.runSegment(index, holder.segmentEnd)) {
+                return STAGE_COMPLETED;
+            }
+            throw STAGE_ABORTED;
+        }
+        final CompletableFuture<Void> stage = this.startStage((AsyncTaskHolder<?, ?>) holder, index);
+        if (stage == null) {
+            return STAGE_COMPLETED;
+        }
+        if ((this.state & PHASE_MASK) != EXECUTING) {
+            throw STAGE_ABORTED;
+        }
+        return stage;
+    }
+
+    /**
+     * Starts a Future or Callback task as a stage
+     *
+     * @return A future that completes with the task, or null if the task completed on this thread
+     */
+    private <R> CompletableFuture<Void> startStage(AsyncTaskHolder<R, ?> holder, int index) {
+        final StageCallback<R> callback = new StageCallback<>(this);
+        return holder.run(this, index, callback) ? null : callback.stage;
+    }
+
+    /**
+     * Called once every stage has ran, or with the error that stopped the stages.
+     * Errors of tasks are already handled by the stage that ran them. Any other error is reported for the current task,
+     * which is the first task of a stage that failed to be handed to its thread.
+     */
+    void completeStages(Throwable throwable) {
+        if (throwable == null) {
+            final int state = this.state;
+            if ((state & PHASE_MASK) == EXECUTING && STATE.compareAndSet(this, state, DONE | (this.taskCount << PHASE_BITS))) {
+                this.previous = null;
+                this.done(true);
+            }
+            return;
+        }
+        if (throwable instanceof CompletionException && throwable.getCause() != null) {
+            throwable = throwable.getCause();
+        }
+        if (throwable != AbortChainException.INSTANCE) {
+            this.handleError(throwable, this.tasks[this.currentActionIndex].task);
+            this.abortExecutingChain();
+        }
+    }
+
+    // </editor-fold>
+    /* ======================================================================================== */
+    // <editor-fold desc="// TaskHolder">
+    /**
+     * Provides foundation of a task with what the previous task type should return
+     * to pass to this and what this task will return.
+     *
+     * Holders do not keep any execution state, so the same holder may be executed by many chains
+     * at once when it belongs to a {@link ChainTemplate}. Prefetch holders are copied for each execution instead.
+     *
+     * Each kind of task has its own holder type, chosen when the task is added, so that executing
+     * a task does not need to check what kind of task it is. Holders extend either {@link InlineTaskHolder}
+     * or {@link AsyncTaskHolder}, so each implements exactly the way it is executed.
+     * @param <R> Return Type
+     * @param <A> Argument Type Expected
+     */
+    @SuppressWarnings("AccessingNonPublicFieldOfAnotherObject")
+    abstract static class TaskHolder<R, A> {
+        final Task<R, A> task;
+        /**
+         * The thread the task runs on, and how it executes. See the TaskHolder flag constants of {@link TaskChain}
+         */
+        byte flags;
+
+        /*
+         * Set by fuseTasks before the holder is executed. Only meaningful on the first task of a segment.
+         */
+        private boolean segmentTracksCurrentChain;
+        private int segmentEnd;
+
+        private TaskHolder(Boolean async, Task<R, A> task, boolean completesInline, boolean trackCurrentChain) {
+            this.task = task;
+            this.flags = (byte) ((async == null ? RUNS_ON_CURRENT : async ? RUNS_ASYNC : RUNS_ON_MAIN)
+                    | (completesInline ? COMPLETES_INLINE : 0)
+                    | (trackCurrentChain ? TRACK_CURRENT_CHAIN : 0));
+        }
+
+        /**
+         * Creates the holder for a task added through an API accepting any {@link Task}
+         */
+        private static <R, A> TaskHolder<R, A> create(Boolean async, Task<R, A> task) {
+            if (task instanceof FutureTask) {
+                return new FutureTaskHolder<>(async, (FutureTask<R, A>) task);
+            } else if (task instanceof AsyncExecutingTask) {
+                return new CallbackTaskHolder<>(async, (AsyncExecutingTask<R, A>) task);
+            } else if (task instanceof ChainTask) {
+                return new ChainTaskHolder<>(async, (ChainTask<R, A>) task);
+            }
+            return new PlainTaskHolder<>(async, task);
+        }
+    }
+
+    /**
+     * A task that returns its result directly, so it may be fused into a segment with its neighbours
+     *
+     * Each holder executes its task through a static invoke method taking the chain, the input, and then the
+     * {@link #constants()} of the holder, which is also what the classes generated by {@link SegmentCompiler} call.
+     */
+    abstract static class InlineTaskHolder<R, A> extends TaskHolder<R, A> {
+        private InlineTaskHolder(Boolean async, Task<R, A> task, boolean trackCurrentChain) {
+            super(async, task, true, trackCurrentChain);
+        }
+
+        /**
+         * Executes the task, returning its result
+         */
+        abstract Object runInline(TaskChain<?> chain, Object arg);
+
+        /**
+         * @return The task and the arguments it is called with, in the order the static invoke method takes them
+         */
+        Object[] constants() {
+            return new Object[] {this.task};
+        }
+
+        /**
+         * @return If the task takes the primitive result of the previous task without it being boxed
+         */
+        boolean takesPrimitive() {
+            return (this.flags & PRIMITIVE_INPUT) != 0;
+        }
+    }
+
+    /**
+     * A Future or Callback task, which completes through a {@link TaskCallback}
+     */
+    private abstract static class AsyncTaskHolder<R, A> extends TaskHolder<R, A> {
+        private AsyncTaskHolder(Boolean async, Task<R, A> task) {
+            super(async, task, false, true);
+        }
+
+        /**
+         * Starts the task, which will complete through the supplied callback
+         */
+        abstract void runAsync(TaskChain<?> chain, Object arg, TaskCallback<R> callback);
+
+        /**
+         * Called internally by Task Chain to facilitate executing a Future or Callback task.
+         *
+         * @return If the task completed on this thread, and the chain should continue to the next task
+         */
+        private boolean run(TaskChain<?> chain, int index, TaskCallback<R> callback) {
+            final Object arg = chain.previous instanceof PrimitiveValue
+                    ? ((PrimitiveValue) chain.previous).box(chain.primitive)
+                    : chain.previous;
+            chain.previous = null;
+            chain.currentActionIndex = index;
+            final TaskChain<?>[] current = currentChain.get();
+            final TaskChain<?> prevChain = current[0];
+            try {
+                current[0] = chain;
+                this.runAsync(chain, arg, callback);
+                return callback.returnFromRun();
+            } catch (Throwable e) {
+                callback.abort();
+                //noinspection ConstantConditions
+                if (!(e instanceof AbortChainException)) {
+                    chain.handleError(e, this.task);
+                }
+                chain.abortExecutingChain();
+                return false;
+            } finally {
+                current[0] = prevChain;
+            }
+        }
+    }
+
+    private static final class PlainTaskHolder<R, A> extends InlineTaskHolder<R, A> {
+        private PlainTaskHolder(Boolean async, Task<R, A> task) {
+            super(async, task, true);
+        }
+
+        @SuppressWarnings("unchecked")
+        static Object invoke(TaskChain<?> chain, Object arg, Task<?, ?> task) {
+            return ((Task<?, Object>) task).run(arg);
+        }
+
+        @Override
+        Object runInline(TaskChain<?> chain, Object arg) {
+            return invoke(chain, arg, this.task);
+        }
+    }
+
+    private static final class ChainTaskHolder<R, A> extends InlineTaskHolder<R, A> {
+        private ChainTaskHolder(Boolean async, ChainTask<R, A> task) {
+            super(async, task, false);
+        }
+
+        @SuppressWarnings("unchecked")
+        static Object invoke(TaskChain<?> chain, Object arg, Task<?, ?> task) {
+            return ((ChainTask<?, Object>) task).run(chain, arg);
+        }
+
+        @Override
+        Object runInline(TaskChain<?> chain, Object arg) {
+            return invoke(chain, arg, this.task);
+        }
+    }
+
+    private static final class FirstTaskHolder<R> extends InlineTaskHolder<R, Object> {
+        private FirstTaskHolder(Boolean async, FirstTask<R> task) {
+            super(async, task, true);
+        }
+
+        static Object invoke(TaskChain<?> chain, Object arg, Task<?, ?> task) {
+            return ((FirstTask<?>) task).run();
+        }
+
+        @Override
+        Object runInline(TaskChain<?> chain, Object arg) {
+            return invoke(chain, arg, this.task);
+        }
+    }
+
+    private static final class LastTaskHolder<A> extends InlineTaskHolder<Object, A> {
+        private LastTaskHolder(Boolean async, LastTask<A> task) {
+            super(async, task, true);
+        }
+
+        @SuppressWarnings("unchecked")
+        static Object invoke(TaskChain<?> chain, Object arg, Task<?, ?> task) {
+            ((LastTask<Object>) task).runLast(arg);
+            return null;
+        }
+
+        @Override
+        Object runInline(TaskChain<?> chain, Object arg) {
+            return invoke(chain, arg, this.task);
+        }
+    }
+
+    private static final class GenericTaskHolder extends InlineTaskHolder<Object, Object> {
+        private GenericTaskHolder(Boolean async, GenericTask task) {
+            super(async, task, true);
+        }
+
+        static Object invoke(TaskChain<?> chain, Object arg, Task<?, ?> task) {
+            ((GenericTask) task).runGeneric();
+            return null;
+        }
+
+        @Override
+        Object runInline(TaskChain<?> chain, Object arg) {
+            return invoke(chain, arg, this.task);
+        }
+    }
+
+    private static final class FutureTaskHolder<R, A> extends AsyncTaskHolder<R, A> {
+        private FutureTaskHolder(Boolean async, FutureTask<R, A> task) {
+            super(async, task);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        void runAsync(TaskChain<?> chain, Object arg, TaskCallback<R> callback) {
+            final CompletableFuture<R> future = ((FutureTask<R, A>) this.task).runFuture((A) arg);
+            if (future == null) {
+                throw new NullPointerException("Must return a Future");
+            }
+            future.whenComplete(callback);
+        }
     }
 
-    void execute0() {
-        synchronized (this) {
-            if (this.executed) {
-                throw new RuntimeException("Already executed");
-            }
-            this.executed = true;
+    /**
+     * Waits for a task that was started when it was added, see {@link TaskChain#asyncPrefetch(FirstTask)}.
+     * Holders built for a {@link ChainTemplate} have no future, and are copied with a started one on each execution.
+     */
+    private static final class PrefetchTaskHolder<R> extends AsyncTaskHolder<R, Object> {
+        private final CompletableFuture<R> future;
+
+        private PrefetchTaskHolder(FirstTask<R> task, CompletableFuture<R> future) {
+            super(null, task);
+            this.future = future;
+        }
+
+        private PrefetchTaskHolder<R> start(TaskChain<?> chain) {
+            //noinspection unchecked
+            return new PrefetchTaskHolder<>((FirstTask<R>) this.task, prefetch(chain, (FirstTask<R>) this.task));
+        }
+
+        @Override
+        void runAsync(TaskChain<?> chain, Object arg, TaskCallback<R> callback) {
+            this.future.whenComplete(callback);
         }
-        async = !impl.isMainThread();
-        nextTask();
     }
 
-    void done(boolean finished) {
-        this.done = true;
-        if (this.doneCallback != null) {
-            final TaskChain<?> prev = currentChain.get();
-            try {
-                currentChain.set(this);
-                this.doneCallback.accept(finished);
-            } catch (Exception e) {
-                this.handleError(e, null);
-            } finally {
-                currentChain.set(prev);
+    private static final class CallbackTaskHolder<R, A> extends AsyncTaskHolder<R, A> {
+        private CallbackTaskHolder(Boolean async, AsyncExecutingTask<R, A> task) {
+            super(async, task);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        void runAsync(TaskChain<?> chain, Object arg, TaskCallback<R> callback) {
+            ((AsyncExecutingTask<R, A>) this.task).runAsync((A) arg, callback);
+        }
+    }
+
+    private static final class Arg1TaskHolder<R, A, A1> extends InlineTaskHolder<R, A> {
+        private final A1 arg1;
+
+        private Arg1TaskHolder(Boolean async, Arg1Task<R, A, A1> task, A1 arg1) {
+            super(async, task, true);
+            this.arg1 = arg1;
+        }
+
+        @SuppressWarnings("unchecked")
+        static Object invoke(TaskChain<?> chain, Object arg, Task<?, ?> task, Object arg1) {
+            return ((Arg1Task<?, Object, Object>) task).run(arg, arg1);
+        }
+
+        @Override
+        Object[] constants() {
+            return new Object[] {this.task, this.arg1};
+        }
+
+        @Override
+        Object runInline(TaskChain<?> chain, Object arg) {
+            return invoke(chain, arg, this.task, this.arg1);
+        }
+    }
+
+    private static final class FutureArg1TaskHolder<R, A, A1> extends AsyncTaskHolder<R, A> {
+        private final A1 arg1;
+
+        private FutureArg1TaskHolder(Boolean async, FutureArg1Task<R, A, A1> task, A1 arg1) {
+            super(async, task);
+            this.arg1 = arg1;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        void runAsync(TaskChain<?> chain, Object arg, TaskCallback<R> callback) {
+            final CompletableFuture<R> future = ((FutureArg1Task<R, A, A1>) this.task).runFuture((A) arg, this.arg1);
+            if (future == null) {
+                throw new NullPointerException("Must return a Future");
             }
+            future.whenComplete(callback);
+        }
+    }
+
+    private static final class Arg2TaskHolder<R, A, A1, A2> extends InlineTaskHolder<R, A> {
+        private final A1 arg1;
+        private final A2 arg2;
+
+        private Arg2TaskHolder(Boolean async, Arg2Task<R, A, A1, A2> task, A1 arg1, A2 arg2) {
+            super(async, task, true);
+            this.arg1 = arg1;
+            this.arg2 = arg2;
+        }
+
+        @SuppressWarnings("unchecked")
+        static Object invoke(TaskChain<?> chain, Object arg, Task<?, ?> task, Object arg1, Object arg2) {
+            return ((Arg2Task<?, Object, Object, Object>) task).run(arg, arg1, arg2);
+        }
+
+        @Override
+        Object[] constants() {
+            return new Object[] {this.task, this.arg1, this.arg2};
+        }
+
+        @Override
+        Object runInline(TaskChain<?> chain, Object arg) {
+            return invoke(chain, arg, this.task, this.arg1, this.arg2);
         }
     }
 
-    @SuppressWarnings({"rawtypes", "WeakerAccess"})
-    protected TaskChain add0(TaskHolder<?,?> task) {
-        synchronized (this) {
-            if (this.executed) {
-                throw new RuntimeException("TaskChain is executing");
+    private static final class FutureArg2TaskHolder<R, A, A1, A2> extends AsyncTaskHolder<R, A> {
+        private final A1 arg1;
+        private final A2 arg2;
+
+        private FutureArg2TaskHolder(Boolean async, FutureArg2Task<R, A, A1, A2> task, A1 arg1, A2 arg2) {
+            super(async, task);
+            this.arg1 = arg1;
+            this.arg2 = arg2;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        void runAsync(TaskChain<?> chain, Object arg, TaskCallback<R> callback) {
+            final CompletableFuture<R> future = ((FutureArg2Task<R, A, A1, A2>) this.task).runFuture((A) arg, this.arg1, this.arg2);
+            if (future == null) {
+                throw new NullPointerException("Must return a Future");
             }
+            future.whenComplete(callback);
         }
+    }
 
-        this.chainQueue.add(task);
-        return this;
+    private static final class Arg3TaskHolder<R, A, A1, A2, A3> extends InlineTaskHolder<R, A> {
+        private final A1 arg1;
+        private final A2 arg2;
+        private final A3 arg3;
+
+        private Arg3TaskHolder(Boolean async, Arg3Task<R, A, A1, A2, A3> task, A1 arg1, A2 arg2, A3 arg3) {
+            super(async, task, true);
+            this.arg1 = arg1;
+            this.arg2 = arg2;
+            this.arg3 = arg3;
+        }
+
+        @SuppressWarnings("unchecked")
+        static Object invoke(TaskChain<?> chain, Object arg, Task<?, ?> task, Object arg1, Object arg2, Object arg3) {
+            return ((Arg3Task<?, Object, Object, Object, Object>) task).run(arg, arg1, arg2, arg3);
+        }
+
+        @Override
+        Object[] constants() {
+            return new Object[] {this.task, this.arg1, this.arg2, this.arg3};
+        }
+
+        @Override
+        Object runInline(TaskChain<?> chain, Object arg) {
+            return invoke(chain, arg, this.task, this.arg1, this.arg2, this.arg3);
+        }
+    }
+
+    private static final class FutureArg3TaskHolder<R, A, A1, A2, A3> extends AsyncTaskHolder<R, A> {
+        private final A1 arg1;
+        private final A2 arg2;
+        private final A3 arg3;
+
+        private FutureArg3TaskHolder(Boolean async, FutureArg3Task<R, A, A1, A2, A3> task, A1 arg1, A2 arg2, A3 arg3) {
+            super(async, task);
+            this.arg1 = arg1;
+            this.arg2 = arg2;
+            this.arg3 = arg3;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        void runAsync(TaskChain<?> chain, Object arg, TaskCallback<R> callback) {
+            final CompletableFuture<R> future = ((FutureArg3Task<R, A, A1, A2, A3>) this.task).runFuture((A) arg, this.arg1, this.arg2, this.arg3);
+            if (future == null) {
+                throw new NullPointerException("Must return a Future");
+            }
+            future.whenComplete(callback);
+        }
     }
 
     /**
-     * Fires off the next task, and switches between Async/Sync as necessary.
+     * Delays the chain using the game scheduler, or real time if a unit is supplied.
+     * The callback of the task is scheduled directly, so a delay does not allocate a task of its own.
      */
-    private void nextTask() {
-        synchronized (this) {
-            this.currentHolder = this.chainQueue.poll();
-            if (this.currentHolder == null) {
-                this.done = true; // to ensure its done while synchronized
+    private static final class DelayTaskHolder<A> extends AsyncTaskHolder<A, A> {
+        private final int duration;
+        private final TimeUnit unit;
+
+        @SuppressWarnings("unchecked")
+        private DelayTaskHolder(int duration, TimeUnit unit) {
+            super(null, (AsyncExecutingTask<A, A>) DELAY_TASK);
+            this.duration = duration;
+            this.unit = unit;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        void runAsync(TaskChain<?> chain, Object arg, TaskCallback<A> callback) {
+            callback.resumeWith = (A) arg;
+            if (this.unit == null) {
+                chain.factory.scheduleTask(this.duration, callback);
+            } else {
+                chain.factory.scheduleTask(this.duration, this.unit, callback);
             }
         }
+    }
 
-        if (this.currentHolder == null) {
-            this.previous = null;
-            // All Done!
-            this.done(true);
-            return;
+    /**
+     * Runs a segment of a compiled {@link ChainTemplate} through the class generated for it by {@link SegmentCompiler}.
+     *
+     * Takes the place of the first holder of the segment, and reports the task of that holder for errors.
+     * The segment fields are copied by {@link TaskChain#compileSegments(TaskHolder[])}.
+     */
+    private static final class CompiledSegmentHolder<R, A> extends InlineTaskHolder<R, A> {
+        private final SegmentCompiler.Segment segment;
+
+        private CompiledSegmentHolder(TaskHolder<R, A> first, SegmentCompiler.Segment segment) {
+            super(null, first.task, false);
+            this.flags = (byte) (first.flags | COMPILED_SEGMENT);
+            this.segment = segment;
         }
 
-        Boolean isNextAsync = this.currentHolder.async;
-        if (isNextAsync == null || factory.shutdown) {
-            this.currentHolder.run();
-        } else if (isNextAsync) {
-            if (this.async) {
-                this.currentHolder.run();
-            } else {
-                impl.postAsync(() -> {
-                    this.async = true;
-                    this.currentHolder.run();
-                });
+        @Override
+        Object runInline(TaskChain<?> chain, Object value) {
+            return this.segment.run(chain, value);
+        }
+    }
+
+    /**
+     * Marks that the previous task returned a primitive, which is stored in {@link TaskChain#primitive}.
+     */
+    private enum PrimitiveValue {
+        INT {
+            @Override
+            Object box(long value) {
+                return (int) value;
             }
-        } else {
-            if (this.async) {
-                impl.postToMain(() -> {
-                    this.async = false;
-                    this.currentHolder.run();
-                });
-            } else {
-                this.currentHolder.run();
+        },
+        LONG {
+            @Override
+            Object box(long value) {
+                return value;
             }
+        },
+        DOUBLE {
+            @Override
+            Object box(long value) {
+                return Double.longBitsToDouble(value);
+            }
+        };
+
+        abstract Object box(long value);
+
+        static int intValue(TaskChain<?> chain, Object arg) {
+            if (arg == INT || arg == LONG) {
+                return (int) chain.primitive;
+            } else if (arg == DOUBLE) {
+                return (int) Double.longBitsToDouble(chain.primitive);
+            }
+            return ((Number) arg).intValue();
         }
-    }
 
-    private void handleError(Throwable throwable, Task<?, ?> task) {
-        Exception e = throwable instanceof Exception ? (Exception) throwable : new Exception(throwable);
-        if (errorHandler != null) {
-            final TaskChain<?> prev = currentChain.get();
-            try {
-                currentChain.set(this);
-                errorHandler.accept(e, task);
-            } catch (Exception e2) {
-                TaskChainUtil.logError("TaskChain Exception in the error handler!" + e2.getMessage());
-                TaskChainUtil.logError("Current Action Index was: " + currentActionIndex);
-                e.printStackTrace();
-            } finally {
-                currentChain.set(prev);
+        static long longValue(TaskChain<?> chain, Object arg) {
+            if (arg == INT || arg == LONG) {
+                return chain.primitive;
+            } else if (arg == DOUBLE) {
+                return (long) Double.longBitsToDouble(chain.primitive);
             }
-        } else {
-            TaskChainUtil.logError("TaskChain Exception on " + (task != null ? task.getClass().getName() : "Done Hander") + ": " + e.getMessage());
-            TaskChainUtil.logError("Current Action Index was: " + currentActionIndex);
-            e.printStackTrace();
+            return ((Number) arg).longValue();
+        }
+
+        static double doubleValue(TaskChain<?> chain, Object arg) {
+            if (arg == INT || arg == LONG) {
+                return chain.primitive;
+            } else if (arg == DOUBLE) {
+                return Double.longBitsToDouble(chain.primitive);
+            }
+            return ((Number) arg).doubleValue();
         }
     }
 
-    private void abortExecutingChain() {
-        this.previous = null;
-        this.chainQueue.clear();
-        this.done(false);
+    private static final class ToIntTaskHolder<A> extends InlineTaskHolder<Integer, A> {
+        private ToIntTaskHolder(Boolean async, ToIntTask<A> task) {
+            super(async, task, true);
+        }
+
+        @SuppressWarnings("unchecked")
+        static Object invoke(TaskChain<?> chain, Object arg, Task<?, ?> task) {
+            chain.primitive = ((ToIntTask<Object>) task).runToInt(arg);
+            return PrimitiveValue.INT;
+        }
+
+        @Override
+        Object runInline(TaskChain<?> chain, Object arg) {
+            return invoke(chain, arg, this.task);
+        }
     }
 
-    private <R> CompletableFuture<List<R>> getFuture(List<CompletableFuture<R>> futures) {
-        CompletableFuture<List<R>> onDone = new CompletableFuture<>();
-        CompletableFuture<?>[] futureArray = new CompletableFuture<?>[futures.size()];
-        CompletableFuture.allOf((CompletableFuture<?>[]) futures.toArray(futureArray)).whenComplete((aVoid, throwable) -> {
-            if (throwable != null) {
-                onDone.completeExceptionally(throwable);
-            } else {
-                boolean[] error = {false};
-                final List<R> results = futures.stream().map(f -> {
-                    try {
-                        return f.join();
-                    } catch (Exception e) {
-                        error[0] = true;
-                        TaskChain.this.handleError(e, TaskChain.this.currentHolder.task);
-                        return null;
-                    }
-                }).collect(Collectors.toList());
-                if (error[0]) {
-                    onDone.completeExceptionally(new Exception("Future Dependant had an exception"));
-                } else {
-                    onDone.complete(results);
-                }
-            }
-        });
-        return onDone;
+    private static final class IntTaskHolder<R> extends InlineTaskHolder<R, Integer> {
+        private IntTaskHolder(Boolean async, IntTask<R> task) {
+            super(async, task, true);
+            this.flags |= PRIMITIVE_INPUT;
+        }
+
+        static Object invoke(TaskChain<?> chain, Object arg, Task<?, ?> task) {
+            return ((IntTask<?>) task).run(PrimitiveValue.intValue(chain, arg));
+        }
+
+        @Override
+        Object runInline(TaskChain<?> chain, Object arg) {
+            return invoke(chain, arg, this.task);
+        }
+    }
+
+    private static final class IntToIntTaskHolder extends InlineTaskHolder<Integer, Integer> {
+        private IntToIntTaskHolder(Boolean async, IntToIntTask task) {
+            super(async, task, true);
+            this.flags |= PRIMITIVE_INPUT;
+        }
+
+        static Object invoke(TaskChain<?> chain, Object arg, Task<?, ?> task) {
+            chain.primitive = ((IntToIntTask) task).runToInt(PrimitiveValue.intValue(chain, arg));
+            return PrimitiveValue.INT;
+        }
+
+        @Override
+        Object runInline(TaskChain<?> chain, Object arg) {
+            return invoke(chain, arg, this.task);
+        }
+    }
+
+    private static final class ToLongTaskHolder<A> extends InlineTaskHolder<Long, A> {
+        private ToLongTaskHolder(Boolean async, ToLongTask<A> task) {
+            super(async, task, true);
+        }
+
+        @SuppressWarnings("unchecked")
+        static Object invoke(TaskChain<?> chain, Object arg, Task<?, ?> task) {
+            chain.primitive = ((ToLongTask<Object>) task).runToLong(arg);
+            return PrimitiveValue.LONG;
+        }
+
+        @Override
+        Object runInline(TaskChain<?> chain, Object arg) {
+            return invoke(chain, arg, this.task);
+        }
+    }
+
+    private static final class LongTaskHolder<R> extends InlineTaskHolder<R, Long> {
+        private LongTaskHolder(Boolean async, LongTask<R> task) {
+            super(async, task, true);
+            this.flags |= PRIMITIVE_INPUT;
+        }
+
+        static Object invoke(TaskChain<?> chain, Object arg, Task<?, ?> task) {
+            return ((LongTask<?>) task).run(PrimitiveValue.longValue(chain, arg));
+        }
+
+        @Override
+        Object runInline(TaskChain<?> chain, Object arg) {
+            return invoke(chain, arg, this.task);
+        }
+    }
+
+    private static final class LongToLongTaskHolder extends InlineTaskHolder<Long, Long> {
+        private LongToLongTaskHolder(Boolean async, LongToLongTask task) {
+            super(async, task, true);
+            this.flags |= PRIMITIVE_INPUT;
+        }
+
+        static Object invoke(TaskChain<?> chain, Object arg, Task<?, ?> task) {
+            chain.primitive = ((LongToLongTask) task).runToLong(PrimitiveValue.longValue(chain, arg));
+            return PrimitiveValue.LONG;
+        }
+
+        @Override
+        Object runInline(TaskChain<?> chain, Object arg) {
+            return invoke(chain, arg, this.task);
+        }
+    }
+
+    private static final class ToDoubleTaskHolder<A> extends InlineTaskHolder<Double, A> {
+        private ToDoubleTaskHolder(Boolean async, ToDoubleTask<A> task) {
+            super(async, task, true);
+        }
+
+        @SuppressWarnings("unchecked")
+        static Object invoke(TaskChain<?> chain, Object arg, Task<?, ?> task) {
+            chain.primitive = Double.doubleToRawLongBits(((ToDoubleTask<Object>) task).runToDouble(arg));
+            return PrimitiveValue.DOUBLE;
+        }
+
+        @Override
+        Object runInline(TaskChain<?> chain, Object arg) {
+            return invoke(chain, arg, this.task);
+        }
+    }
+
+    private static final class DoubleTaskHolder<R> extends InlineTaskHolder<R, Double> {
+        private DoubleTaskHolder(Boolean async, DoubleTask<R> task) {
+            super(async, task, true);
+            this.flags |= PRIMITIVE_INPUT;
+        }
+
+        static Object invoke(TaskChain<?> chain, Object arg, Task<?, ?> task) {
+            return ((DoubleTask<?>) task).run(PrimitiveValue.doubleValue(chain, arg));
+        }
+
+        @Override
+        Object runInline(TaskChain<?> chain, Object arg) {
+            return invoke(chain, arg, this.task);
+        }
+    }
+
+    private static final class DoubleToDoubleTaskHolder extends InlineTaskHolder<Double, Double> {
+        private DoubleToDoubleTaskHolder(Boolean async, DoubleToDoubleTask task) {
+            super(async, task, true);
+            this.flags |= PRIMITIVE_INPUT;
+        }
+
+        static Object invoke(TaskChain<?> chain, Object arg, Task<?, ?> task) {
+            chain.primitive = Double.doubleToRawLongBits(((DoubleToDoubleTask) task).runToDouble(PrimitiveValue.doubleValue(chain, arg)));
+            return PrimitiveValue.DOUBLE;
+        }
+
+        @Override
+        Object runInline(TaskChain<?> chain, Object arg) {
+            return invoke(chain, arg, this.task);
+        }
     }
 
-    // </editor-fold>
-    /* ======================================================================================== */
-    // <editor-fold desc="// TaskHolder">
     /**
-     * Provides foundation of a task with what the previous task type should return
-     * to pass to this and what this task will return.
+     * Receives the result of a Future or Callback task for a single execution of that task.
      * @param <R> Return Type
-     * @param <A> Argument Type Expected
      */
-    @SuppressWarnings("AccessingNonPublicFieldOfAnotherObject")
-    private class TaskHolder<R, A> {
+    private static class TaskCallback<R> implements Consumer<R>, BiConsumer<R, Throwable>, Runnable {
+        private static final AtomicIntegerFieldUpdater<TaskCallback> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(TaskCallback.class, "state");
+        private static final int PENDING = 0;
+        private static final int COMPLETED = 1;
+        private static final int ABORTED = 2;
+        /**
+         * Completed before the task returned from its run method
+         */
+        private static final int COMPLETED_INLINE = 3;
+        /**
+         * Completed, and posted to the async queue to continue there, see {@link #run()}
+         */
+        private static final int CONTINUING = 4;
+
         private final TaskChain<?> chain;
-        private final Task<R, A> task;
-        final Boolean async;
+        private final int generation;
 
-        private boolean executed = false;
-        private boolean aborted = false;
-        private final int actionIndex;
+        private volatile int state = PENDING;
+        /**
+         * Value to complete with when ran as a Runnable
+         */
+        private R resumeWith;
+        private Thread runningThread = Thread.currentThread();
 
-        private TaskHolder(TaskChain<?> chain, Boolean async, Task<R, A> task) {
-            this.actionIndex = TaskChain.this.actionIndex++;
-            this.task = task;
+        private TaskCallback(TaskChain<?> chain) {
             this.chain = chain;
-            this.async = async;
+            this.generation = chain.generation;
         }
 
         /**
-         * Called internally by Task Chain to facilitate executing the task and then the next task.
+         * Called once the task has returned from its run method
+         *
+         * @return If the task already completed on this thread, and the chain should continue to the next task
          */
-        private void run() {
-            final Object arg = this.chain.previous;
-            this.chain.previous = null;
-            TaskChain.this.currentActionIndex = this.actionIndex;
-            final R res;
-            final TaskChain<?> prevChain = currentChain.get();
-            try {
-                currentChain.set(this.chain);
-                if (this.task instanceof FutureTask) {
-                    //noinspection unchecked
-                    final CompletableFuture<R> future = ((FutureTask<R, A>) this.task).runFuture((A) arg);
-                    if (future == null) {
-                        throw new NullPointerException("Must return a Future");
-                    }
-                    future.whenComplete((r, throwable) -> {
-                        if (throwable != null) {
-                            this.chain.handleError(throwable, this.task);
-                            this.abort();
-                        } else {
-                            this.next(r);
-                        }
-                    });
-                } else if (this.task instanceof AsyncExecutingTask) {
-                    //noinspection unchecked
-                    ((AsyncExecutingTask<R, A>) this.task).runAsync((A) arg, this::next);
-                } else {
-                    //noinspection unchecked
-                    next(this.task.run((A) arg));
-                }
-            } catch (Throwable e) {
-                //noinspection ConstantConditions
-                if (e instanceof AbortChainException) {
-                    this.abort();
-                    return;
-                }
-                this.chain.handleError(e, this.task);
-                this.abort();
-            } finally {
-                if (prevChain != null) {
-                    currentChain.set(prevChain);
-                } else {
-                    currentChain.remove();
-                }
+        private boolean returnFromRun() {
+            this.runningThread = null;
+            return this.state == COMPLETED_INLINE;
+        }
+
+        /**
+         * Prevents a late call to the callback from continuing the chain once this task has aborted it.
+         */
+        private void abort() {
+            STATE.compareAndSet(this, PENDING, ABORTED);
+        }
+
+        /**
+         * Rejects completing a task of a pooled chain that has since been recycled, as the chain now belongs to another execution.
+         * Late calls to an aborted task are still ignored. This is the only place the generation is checked.
+         */
+        private void checkGeneration() {
+            if (this.generation != this.chain.generation && this.state != ABORTED) {
+                throw new IllegalStateException("This task's chain has already finished and been recycled.");
+            }
+        }
+
+        /**
+         * Completes with {@link #resumeWith}, for tasks that schedule the callback directly.
+         * Once the callback has posted itself to leave the completing thread, continues the chain instead.
+         */
+        @Override
+        public void run() {
+            if (this.state == CONTINUING) {
+                this.continueChain(true);
+                return;
             }
+            this.accept(this.resumeWith);
         }
 
         /**
-         * Abort the chain, and clear tasks for GC.
+         * Future completion
          */
-        private synchronized void abort() {
-            this.aborted = true;
-            this.chain.abortExecutingChain();
+        @Override
+        public void accept(R r, Throwable throwable) {
+            if (throwable != null) {
+                this.checkGeneration();
+                if (STATE.compareAndSet(this, PENDING, ABORTED)) {
+                    this.chain.handleError(throwable, this.chain.tasks[this.chain.currentActionIndex].task);
+                    this.chain.abortExecutingChain();
+                    this.aborted();
+                }
+            } else {
+                this.accept(r);
+            }
         }
 
         /**
          * Accepts result of previous task and executes the next
          */
-        private void next(Object resp) {
-            synchronized (this) {
-                if (this.aborted) {
-                    this.chain.done(false);
+        @Override
+        public void accept(R resp) {
+            this.checkGeneration();
+            if (!STATE.compareAndSet(this, PENDING, COMPLETED)) {
+                if (this.state == ABORTED) {
                     return;
                 }
-                if (this.executed) {
-                    this.chain.done(false);
-                    throw new RuntimeException("This task has already been executed.");
-                }
-                this.executed = true;
+                throw new RuntimeException("This task has already been executed.");
             }
 
-            this.chain.async = !TaskChain.this.impl.isMainThread(); // We don't know where the task called this from.
             this.chain.previous = resp;
+            if (this.runningThread == Thread.currentThread()) {
+                // Completed before run() returned, let the dispatch loop fire the next task
+                this.state = COMPLETED_INLINE;
+                return;
+            }
+
+            this.resume();
+        }
+
+        /**
+         * Continues the chain after the task completed on another thread, or posts this callback to continue
+         * it on the async queue per the {@link ContinuationPolicy}
+         */
+        private void resume() {
+            final boolean isMainThread = this.chain.factory.getImplementation().isMainThread(); // We don't know where the task called this from.
+            if (this.chain.leavesCompletingThread(isMainThread)) {
+                this.state = CONTINUING;
+                this.chain.postAsync(this);
+                return;
+            }
+            this.continueChain(!isMainThread);
+        }
+
+        /**
+         * Continues the chain on this thread
+         */
+        void continueChain(boolean async) {
+            this.chain.async = async;
             this.chain.nextTask();
         }
+
+        /**
+         * Called after the task aborted the chain on another thread
+         */
+        void aborted() {
+        }
+    }
+
+    /**
+     * Completes the stage of a Future or Callback task, for engines that pass control between tasks themselves
+     */
+    private static final class StageCallback<R> extends TaskCallback<R> {
+        private final CompletableFuture<Void> stage = new CompletableFuture<>();
+
+        private StageCallback(TaskChain<?> chain) {
+            super(chain);
+        }
+
+        @Override
+        void continueChain(boolean async) {
+            this.stage.complete(null);
+        }
+
+        @Override
+        void aborted() {
+            this.stage.completeExceptionally(STAGE_ABORTED);
+        }
     }
     // </editor-fold>
 }
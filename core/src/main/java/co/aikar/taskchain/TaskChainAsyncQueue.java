@@ -32,25 +32,43 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class TaskChainAsyncQueue implements AsyncQueue {
     private static final AtomicInteger threadId = new AtomicInteger();
     private final ThreadPoolExecutor executor;
+    /**
+     * If every thread of the executor is a TaskChain thread, see {@link ContinuationPolicy}.
+     * Otherwise the executor is shared, and threads are only marked while they run tasks posted here.
+     */
+    private final boolean markedThreads;
 
     public TaskChainAsyncQueue() {
         this.executor = createCachedThreadPool();
+        this.markedThreads = true;
     }
 
     public TaskChainAsyncQueue(ThreadPoolExecutor executor) {
         this.executor = executor;
+        this.markedThreads = false;
     }
 
     public static ThreadPoolExecutor createCachedThreadPool() {
         return (ThreadPoolExecutor) Executors.newCachedThreadPool(r -> {
-            final Thread thread = new Thread(r);
+            final Thread thread = new Thread(TaskChainUtil.taskChainThread(r));
             thread.setName("TaskChainAsyncQueue Thread " + threadId.getAndIncrement());
             return thread;
         });
     }
 
     public void postAsync(Runnable runnable) {
-        executor.submit(runnable);
+        if (markedThreads) {
+            executor.execute(runnable);
+            return;
+        }
+        executor.execute(() -> {
+            final boolean wasMarked = TaskChainUtil.beginTaskChainThread();
+            try {
+                runnable.run();
+            } finally {
+                TaskChainUtil.endTaskChainThread(wasMarked);
+            }
+        });
     }
 
     /**
@@ -61,4 +61,49 @@ public final class TaskChainDataWrappers {
             this.var6 = var6;
         }
     }
+    public static class IntData2 {
+        public final int var1;
+        public final int var2;
+        public IntData2(int var1, int var2) {
+            this.var1 = var1;
+            this.var2 = var2;
+        }
+    }
+    public static class IntData3 extends IntData2 {
+        public final int var3;
+        public IntData3(int var1, int var2, int var3) {
+            super(var1, var2);
+            this.var3 = var3;
+        }
+    }
+    public static class LongData2 {
+        public final long var1;
+        public final long var2;
+        public LongData2(long var1, long var2) {
+            this.var1 = var1;
+            this.var2 = var2;
+        }
+    }
+    public static class LongData3 extends LongData2 {
+        public final long var3;
+        public LongData3(long var1, long var2, long var3) {
+            super(var1, var2);
+            this.var3 = var3;
+        }
+    }
+    public static class DoubleData2 {
+        public final double var1;
+        public final double var2;
+        public DoubleData2(double var1, double var2) {
+            this.var1 = var1;
+            this.var2 = var2;
+        }
+    }
+    public static class DoubleData3 extends DoubleData2 {
+        public final double var3;
+        public DoubleData3(double var1, double var2, double var3) {
+            super(var1, var2);
+            this.var3 = var3;
+        }
+    }
 }
@@ -23,31 +23,118 @@
 
 package co.aikar.taskchain;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 @SuppressWarnings({"WeakerAccess", "unused"})
 public class TaskChainFactory {
     private final GameInterface impl;
     private final AsyncQueue asyncQueue;
+    /**
+     * Runs real time delays, unless the game implements {@link GameInterface#scheduleTask(int, TimeUnit, Runnable)} itself
+     */
+    private final TimingWheel delayWheel;
+    /**
+     * Runs delays in game units, if the game provides a tick hook with {@link GameInterface#registerTickHook(Runnable)}
+     */
+    private final TimingWheel tickWheel;
     private final Map<String, Queue<SharedTaskChain>> sharedChains = new HashMap<>();
+    private final Map<String, ChainTemplate<?>> templates = new ConcurrentHashMap<>();
     volatile private BiConsumer<Exception, TaskChainTasks.Task<?, ?>> defaultErrorHandler;
     volatile boolean shutdown = false;
+    volatile private ChainPool chainPool;
+    volatile private ExecutionEngine executionEngine = ExecutionEngine.DEFAULT;
+    volatile private AffinityAsyncQueue affinityQueue;
+    volatile private ContinuationPolicy continuationPolicy = ContinuationPolicy.COMPLETING_THREAD;
 
     @SuppressWarnings("WeakerAccess")
     public TaskChainFactory(GameInterface impl) {
         this.impl = impl;
         this.asyncQueue = impl.getAsyncQueue();
+        this.delayWheel = usesDefaultDelay(impl) ? new TimingWheel(TaskChain::postDelay, 10, TimeUnit.MILLISECONDS, 512) : null;
+        final TimingWheel tickWheel = new TimingWheel(512);
+        this.tickWheel = impl.registerTickHook(tickWheel::tick) ? tickWheel : null;
         impl.registerShutdownHandler(this);
     }
 
+    private static boolean usesDefaultDelay(GameInterface impl) {
+        try {
+            return impl.getClass().getMethod("scheduleTask", int.class, TimeUnit.class, Runnable.class).getDeclaringClass() == GameInterface.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
     GameInterface getImplementation() {
         return impl;
     }
 
+    /**
+     * Runs the task on the main thread after a delay in game units
+     */
+    void scheduleTask(int gameUnits, Runnable run) {
+        if (tickWheel != null) {
+            tickWheel.scheduleTicks(gameUnits, run);
+        } else {
+            impl.scheduleTask(gameUnits, run);
+        }
+    }
+
+    /**
+     * Runs the callback of a delay task after a real time delay, off the main thread.
+     * On the timing wheel of the factory, the callback is posted by {@link TaskChain#postDelay(Runnable)}.
+     */
+    void scheduleTask(int duration, TimeUnit unit, Runnable run) {
+        if (delayWheel != null) {
+            delayWheel.schedule(duration, unit, run);
+        } else {
+            impl.scheduleTask(duration, unit, run);
+        }
+    }
+
+    /**
+     * Returns the queue that tasks for the main thread are coalesced into, to configure how much each
+     * game tick drains from it, or to monitor its depth
+     * @return The queue, or null if the game schedules each task for the main thread individually
+     */
+    public MainThreadQueue getMainThreadQueue() {
+        return impl.getMainThreadQueue();
+    }
+
+    /**
+     * A drain point: runs tasks waiting for the main thread now, instead of on the next game tick.
+     *
+     * Call this on the main thread at points within a tick where it is safe to run chain tasks, such as at the
+     * end of dispatching an event. Sync tasks that follow async work which finished during the tick then run
+     * in the same tick, instead of waiting up to a tick for each switch to the main thread.
+     *
+     * Does nothing if the game does not coalesce tasks into a {@link MainThreadQueue}, or off the main thread.
+     *
+     * @param maxTime Time budget for running tasks. Tasks are not interrupted, so the last task may run over it
+     * @param unit Units of the budget
+     * @return The number of tasks ran
+     */
+    public int drainMainThread(long maxTime, TimeUnit unit) {
+        final MainThreadQueue queue = impl.getMainThreadQueue();
+        if (queue == null || shutdown || !impl.isMainThread()) {
+            return 0;
+        }
+        return queue.drain(Integer.MAX_VALUE, unit.toNanos(maxTime));
+    }
+
+    ChainPool getChainPool() {
+        return chainPool;
+    }
+
     public Map<String, Queue<SharedTaskChain>> getSharedChains() {
         return sharedChains;
     }
@@ -56,7 +143,25 @@ public class TaskChainFactory {
      * Creates a new chain.
      */
     public <T> TaskChain<T> newChain() {
-        return new TaskChain<>(this);
+        final ChainPool pool = this.chainPool;
+        if (pool == null) {
+            return new TaskChain<>(this);
+        }
+        TaskChain<T> chain = pool.acquire();
+        if (chain == null) {
+            chain = new TaskChain<>(this);
+        }
+        chain.reuse();
+        return chain;
+    }
+
+    /**
+     * Creates a chain to execute the tasks of a {@link ChainTemplate}
+     */
+    <T> TaskChain<T> newTemplateChain(TaskChain.TaskHolder<?, ?>[] tasks, Object seed) {
+        final TaskChain<T> chain = newChain();
+        chain.useTemplateTasks(tasks, seed);
+        return chain;
     }
 
     /**
@@ -77,6 +182,71 @@ public class TaskChainFactory {
         return new SharedTaskChain<>(name, this);
     }
 
+    /**
+     * Builds a reusable {@link ChainTemplate}. The builder receives a chain to add tasks to with the normal
+     * chain API, but that chain is never executed itself.
+     *
+     * Example: factory.&lt;Player&gt;newTemplate(chain -&gt; chain.async(this::loadData).syncLast(this::apply))
+     *
+     * @param builder Adds the tasks of the template
+     * @param <T> Type of the seed value that is passed to the first task
+     */
+    public <T> ChainTemplate<T> newTemplate(Consumer<TaskChain<T>> builder) {
+        TaskChain<T> chain = new TaskChain<>(this, true);
+        builder.accept(chain);
+        return new ChainTemplate<>(this, chain.toTemplateTasks());
+    }
+
+    /**
+     * Gets a cached {@link ChainTemplate} by name, building it with the supplied builder the first time it is requested.
+     *
+     * @param name Name of the template. Case sensitive
+     * @param builder Adds the tasks of the template if it has not been built yet
+     * @param <T> Type of the seed value that is passed to the first task
+     * @see #newTemplate(Consumer)
+     */
+    public <T> ChainTemplate<T> getTemplate(String name, Consumer<TaskChain<T>> builder) {
+        //noinspection unchecked
+        return (ChainTemplate<T>) templates.computeIfAbsent(name, (key) -> newTemplate(builder));
+    }
+
+    /**
+     * Executes many chains at once, such as one chain per online player.
+     *
+     * Chains that start on this thread begin executing right away. The rest are grouped by the thread their
+     * first task runs on, and each group is posted as a single task instead of one task per chain.
+     * Chains starting on the main thread are posted in groups of a few dozen, so the drain limits of a
+     * {@link MainThreadQueue} still apply between groups. Chains starting async are split into one group per
+     * processor, so their first tasks still run in parallel, and are grouped per worker with an {@link AffinityAsyncQueue}.
+     *
+     * Chains are executed without a done handler, using the default error handler unless they have their own.
+     * Shared chains are executed one at a time, as {@link TaskChain#execute()} would.
+     *
+     * @param chains Chains created by this factory that have not been executed yet
+     * @throws IllegalArgumentException If any chain was created by another factory. No chain is executed
+     */
+    public void executeAll(Collection<? extends TaskChain<?>> chains) {
+        for (TaskChain<?> chain : chains) {
+            if (chain.getFactory() != this) {
+                throw new IllegalArgumentException("Chain was created by another factory");
+            }
+        }
+        final List<TaskChain<?>> started = new ArrayList<>(chains.size());
+        try {
+            for (TaskChain<?> chain : chains) {
+                if (chain instanceof SharedTaskChain) {
+                    chain.execute();
+                } else {
+                    chain.start();
+                    started.add(chain);
+                }
+            }
+        } finally {
+            // Chains already marked as executing must still run if a later one fails to start
+            executionEngine.executeAll(this, started);
+        }
+    }
+
     /**
      * Returns the default error handler that will be used by all chains created by this factory,
      * if they do not suspply their own error handler.
@@ -95,6 +265,82 @@ public class TaskChainFactory {
         this.defaultErrorHandler = errorHandler;
     }
 
+    /**
+     * @return The engine that executes chains created by this factory
+     */
+    public ExecutionEngine getExecutionEngine() {
+        return executionEngine;
+    }
+
+    /**
+     * Changes the engine that executes chains created by this factory. Chains that are already executing
+     * continue to use the engine they started with.
+     *
+     * @param executionEngine The engine, such as {@link ExecutionEngine#DEFAULT} or {@link ExecutionEngine#COMPLETABLE_FUTURE}
+     */
+    public void setExecutionEngine(ExecutionEngine executionEngine) {
+        this.executionEngine = Objects.requireNonNull(executionEngine);
+    }
+
+    /**
+     * @return Where chains continue after a Future or Callback task completes on another thread
+     */
+    public ContinuationPolicy getContinuationPolicy() {
+        return continuationPolicy;
+    }
+
+    /**
+     * Changes where chains continue after a Future or Callback task completes on another thread.
+     * Defaults to {@link ContinuationPolicy#COMPLETING_THREAD}.
+     *
+     * @param continuationPolicy The policy
+     */
+    public void setContinuationPolicy(ContinuationPolicy continuationPolicy) {
+        this.continuationPolicy = Objects.requireNonNull(continuationPolicy);
+    }
+
+    /**
+     * @return The queue async tasks are sent to by affinity, or null if they use the async queue of the game
+     */
+    public AffinityAsyncQueue getAffinityQueue() {
+        return affinityQueue;
+    }
+
+    /**
+     * Sends the async tasks of chains to an {@link AffinityAsyncQueue}, instead of the async queue of the game.
+     * The async tasks of a chain then run on the same worker, as do those of chains with the same
+     * {@link TaskChain#setAffinity(Object)} key. The queue is shut down with this factory.
+     *
+     * @param affinityQueue The queue, or null to use the async queue of the game
+     */
+    public void setAffinityQueue(AffinityAsyncQueue affinityQueue) {
+        this.affinityQueue = affinityQueue;
+    }
+
+    /**
+     * @return If chains created by this factory are recycled once done
+     */
+    public boolean isChainPooling() {
+        return chainPool != null;
+    }
+
+    /**
+     * Enables recycling chains created by {@link #newChain()} and {@link ChainTemplate}s once they are done,
+     * so that steady use of short chains does not allocate a new chain every time.
+     *
+     * When enabled, a chain must not be used once its done handler has returned, as it may already belong to
+     * another execution. Nothing prevents that misuse: only completing a Future or Callback task of a recycled
+     * chain is rejected. {@link TaskChain#getGeneration()} can be compared to notice that a chain has been recycled.
+     * Shared chains are never pooled.
+     *
+     * @param pooling If chains should be pooled
+     */
+    public void setChainPooling(boolean pooling) {
+        if (pooling != (chainPool != null)) {
+            chainPool = pooling ? new ChainPool() : null;
+        }
+    }
+
     /**
      * Shuts down the TaskChain system, forcing all tasks to run on current threads and finish.
      * @param duration How long in the supplied units to wait before giving up the shutdown.
@@ -102,6 +348,16 @@ public class TaskChainFactory {
      */
     public void shutdown(int duration, TimeUnit units) {
         shutdown = true;
+        if (delayWheel != null) {
+            delayWheel.shutdown();
+        }
+        if (tickWheel != null) {
+            tickWheel.shutdown();
+        }
         asyncQueue.shutdown(duration, units);
+        final AffinityAsyncQueue affinityQueue = this.affinityQueue;
+        if (affinityQueue != null) {
+            affinityQueue.shutdown(duration, units);
+        }
     }
 }
@@ -45,6 +45,148 @@ public class TaskChainTasks {
         R run(A input);
     }
 
+    /**
+     * A task that receives the chain executing it as an argument.
+     *
+     * Added with {@link TaskChain#syncWithChain(ChainTask)} and its async and current variants.
+     * Unlike other tasks, TaskChain does not need to track the current chain for these tasks,
+     * so {@link TaskChain#getCurrentChain()} should not be used inside of them.
+     *
+     * @param <R>
+     * @param <A>
+     */
+    public interface ChainTask<R, A> extends Task<R, A> {
+        @Override
+        default R run(A input) {
+            return run(TaskChain.getCurrentChain(), input);
+        }
+
+        R run(TaskChain<?> chain, A input);
+    }
+
+    /**
+     * A task that returns a int, which is passed to the next task without boxing
+     * if the next task accepts a int.
+     *
+     * @param <A>
+     */
+    public interface ToIntTask<A> extends Task<Integer, A> {
+        @Override
+        default Integer run(A input) {
+            return runToInt(input);
+        }
+
+        int runToInt(A input);
+    }
+
+    /**
+     * A task that expects a int as input, and returns a value.
+     *
+     * @param <R>
+     */
+    public interface IntTask<R> extends Task<R, Integer> {
+        @Override
+        default R run(Integer input) {
+            return run(input.intValue());
+        }
+
+        R run(int input);
+    }
+
+    /**
+     * A task that expects a int as input, and returns a int, without boxing either.
+     */
+    public interface IntToIntTask extends Task<Integer, Integer> {
+        @Override
+        default Integer run(Integer input) {
+            return runToInt(input.intValue());
+        }
+
+        int runToInt(int input);
+    }
+
+    /**
+     * A task that returns a long, which is passed to the next task without boxing
+     * if the next task accepts a long.
+     *
+     * @param <A>
+     */
+    public interface ToLongTask<A> extends Task<Long, A> {
+        @Override
+        default Long run(A input) {
+            return runToLong(input);
+        }
+
+        long runToLong(A input);
+    }
+
+    /**
+     * A task that expects a long as input, and returns a value.
+     *
+     * @param <R>
+     */
+    public interface LongTask<R> extends Task<R, Long> {
+        @Override
+        default R run(Long input) {
+            return run(input.longValue());
+        }
+
+        R run(long input);
+    }
+
+    /**
+     * A task that expects a long as input, and returns a long, without boxing either.
+     */
+    public interface LongToLongTask extends Task<Long, Long> {
+        @Override
+        default Long run(Long input) {
+            return runToLong(input.longValue());
+        }
+
+        long runToLong(long input);
+    }
+
+    /**
+     * A task that returns a double, which is passed to the next task without boxing
+     * if the next task accepts a double.
+     *
+     * @param <A>
+     */
+    public interface ToDoubleTask<A> extends Task<Double, A> {
+        @Override
+        default Double run(A input) {
+            return runToDouble(input);
+        }
+
+        double runToDouble(A input);
+    }
+
+    /**
+     * A task that expects a double as input, and returns a value.
+     *
+     * @param <R>
+     */
+    public interface DoubleTask<R> extends Task<R, Double> {
+        @Override
+        default R run(Double input) {
+            return run(input.doubleValue());
+        }
+
+        R run(double input);
+    }
+
+    /**
+     * A task that expects a double as input, and returns a double, without boxing either.
+     */
+    public interface DoubleToDoubleTask extends Task<Double, Double> {
+        @Override
+        default Double run(Double input) {
+            return runToDouble(input.doubleValue());
+        }
+
+        double runToDouble(double input);
+    }
+
     /**
      * A task that expects no input, and returns a value.
      * Likely to be the first task in the chain
@@ -181,4 +323,103 @@ public class TaskChainTasks {
 
         void run(Runnable next);
     }
+
+    /**
+     * A task that receives 1 argument supplied when the task was added, in addition to the previous task result.
+     *
+     * Using a non capturing lambda or static method reference, and passing values as arguments,
+     * avoids allocating a new task object every time the chain is built.
+     *
+     * @param <R>
+     * @param <A>
+     */
+    public interface Arg1Task<R, A, A1> extends Task<R, A> {
+        @Override
+        default R run(A input) {
+            // unused
+            return null;
+        }
+
+        R run(A input, A1 arg1);
+    }
+
+    /**
+     * A task that receives 2 arguments supplied when the task was added, in addition to the previous task result.
+     *
+     * Using a non capturing lambda or static method reference, and passing values as arguments,
+     * avoids allocating a new task object every time the chain is built.
+     *
+     * @param <R>
+     * @param <A>
+     */
+    public interface Arg2Task<R, A, A1, A2> extends Task<R, A> {
+        @Override
+        default R run(A input) {
+            // unused
+            return null;
+        }
+
+        R run(A input, A1 arg1, A2 arg2);
+    }
+
+    /**
+     * A task that receives 3 arguments supplied when the task was added, in addition to the previous task result.
+     *
+     * Using a non capturing lambda or static method reference, and passing values as arguments,
+     * avoids allocating a new task object every time the chain is built.
+     *
+     * @param <R>
+     * @param <A>
+     */
+    public interface Arg3Task<R, A, A1, A2, A3> extends Task<R, A> {
+        @Override
+        default R run(A input) {
+            // unused
+            return null;
+        }
+
+        R run(A input, A1 arg1, A2 arg2, A3 arg3);
+    }
+
+    /**
+     * @see Arg1Task
+     * @see FutureTask
+     */
+    public interface FutureArg1Task<R, A, A1> extends FutureTask<R, A> {
+        @Override
+        default CompletableFuture<R> runFuture(A input) {
+            // unused
+            return null;
+        }
+
+        CompletableFuture<R> runFuture(A input, A1 arg1);
+    }
+
+    /**
+     * @see Arg2Task
+     * @see FutureTask
+     */
+    public interface FutureArg2Task<R, A, A1, A2> extends FutureTask<R, A> {
+        @Override
+        default CompletableFuture<R> runFuture(A input) {
+            // unused
+            return null;
+        }
+
+        CompletableFuture<R> runFuture(A input, A1 arg1, A2 arg2);
+    }
+
+    /**
+     * @see Arg3Task
+     * @see FutureTask
+     */
+    public interface FutureArg3Task<R, A, A1, A2, A3> extends FutureTask<R, A> {
+        @Override
+        default CompletableFuture<R> runFuture(A input) {
+            // unused
+            return null;
+        }
+
+        CompletableFuture<R> runFuture(A input, A1 arg1, A2 arg2, A3 arg3);
+    }
 }
@@ -26,9 +26,52 @@ package co.aikar.taskchain;
 import java.util.logging.Logger;
 
 final class TaskChainUtil {
+    /**
+     * Set on threads that run async tasks for TaskChain, see {@link #isTaskChainThread()}
+     */
+    private static final ThreadLocal<boolean[]> taskChainThread = ThreadLocal.withInitial(() -> new boolean[1]);
+
     private TaskChainUtil() {
     }
 
+    /**
+     * Marks the threads of the async queues and workers of TaskChain. A chain may continue on them with async
+     * tasks, so {@link ContinuationPolicy#TARGET_EXECUTOR} does not move a chain off of them.
+     *
+     * @param thread Runs the thread, and is marked as a TaskChain thread first
+     * @return The marked runnable to start the thread with
+     */
+    static Runnable taskChainThread(Runnable thread) {
+        return () -> {
+            taskChainThread.get()[0] = true;
+            thread.run();
+        };
+    }
+
+    /**
+     * Marks the current thread as a TaskChain thread while it runs tasks for TaskChain, such as a task
+     * posted to an executor supplied to {@link TaskChainAsyncQueue}
+     *
+     * @return If the thread was already marked, to pass to {@link #endTaskChainThread(boolean)}
+     */
+    static boolean beginTaskChainThread() {
+        final boolean[] marked = taskChainThread.get();
+        final boolean wasMarked = marked[0];
+        marked[0] = true;
+        return wasMarked;
+    }
+
+    static void endTaskChainThread(boolean wasMarked) {
+        taskChainThread.get()[0] = wasMarked;
+    }
+
+    /**
+     * @return If the current thread runs async tasks for TaskChain
+     */
+    static boolean isTaskChainThread() {
+        return taskChainThread.get()[0];
+    }
+
     /**
      * Util method for example logging
      * @param log
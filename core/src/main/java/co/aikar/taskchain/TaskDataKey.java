@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A typed key for Task Data, which avoids hashing a String and casting on every access.
+ *
+ * Every key reserves a slot in the Task Data of the chains that use it, so keys should be created once
+ * and kept as constants, such as: static final TaskDataKey&lt;Player&gt; PLAYER = TaskDataKey.create("player");
+ *
+ * @param <T> Type of the value stored under this key
+ */
+@SuppressWarnings("WeakerAccess")
+public final class TaskDataKey <T> {
+    private static final AtomicInteger slots = new AtomicInteger();
+
+    final int slot;
+    private final String name;
+
+    private TaskDataKey(String name) {
+        this.name = name;
+        this.slot = slots.getAndIncrement();
+    }
+
+    /**
+     * Creates a new key. Keys are compared by identity, so 2 keys with the same name are different keys.
+     * @param name Name of the key, used for debugging
+     * @param <T> Type of the value stored under this key
+     */
+    public static <T> TaskDataKey<T> create(String name) {
+        return new TaskDataKey<>(name);
+    }
+
+    /**
+     * @return The number of slots reserved by all keys created so far
+     */
+    static int getSlotCount() {
+        return slots.get();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskDataKey{" + name + "}";
+    }
+}
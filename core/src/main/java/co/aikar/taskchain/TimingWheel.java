@@ -0,0 +1,296 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A hashed timing wheel of delayed tasks.
+ *
+ * Scheduling and cancelling are O(1), and a pending task does not hold a thread while it waits.
+ * Every tick, the thread advancing the wheel unlinks the tasks that are due, and hands each to the executor
+ * on its own, so the executor may run them in parallel.
+ *
+ * The wheel either ticks in real time on its own thread, which is started by the first scheduled task and parks
+ * while there is nothing to wait for, or is advanced by calls to {@link #tick()}, such as from a game tick hook.
+ */
+final class TimingWheel {
+    private static final AtomicInteger threadId = new AtomicInteger();
+
+    private final Executor executor;
+    private final Timeout[] buckets;
+    private final int mask;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final long startTime = System.nanoTime();
+    /*
+     * Only used when ticking in real time
+     */
+    private final long tickNanos;
+    private final Thread ticker;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile boolean idle = false;
+
+    private volatile boolean shutdown = false;
+    /**
+     * The next tick to expire. Only written by the thread advancing the wheel
+     */
+    private volatile long tick = 0;
+    /**
+     * Timeouts in the buckets, only accessed by the thread advancing the wheel
+     */
+    private int size = 0;
+
+    /**
+     * Creates a wheel that ticks in real time on its own thread
+     * @param executor Receives each task that is due, on the ticker thread
+     * @param tick Duration of a tick
+     * @param unit Unit of the tick
+     * @param wheelSize Number of buckets, rounded up to a power of 2
+     */
+    TimingWheel(Executor executor, long tick, TimeUnit unit, int wheelSize) {
+        this.executor = executor;
+        this.buckets = new Timeout[Integer.highestOneBit(Math.max(1, wheelSize - 1) << 1)];
+        this.mask = this.buckets.length - 1;
+        this.tickNanos = unit.toNanos(tick);
+        this.ticker = new Thread(this::runTicker, "TaskChain TimingWheel Thread " + threadId.getAndIncrement());
+        this.ticker.setDaemon(true);
+    }
+
+    /**
+     * Creates a wheel that is advanced by calls to {@link #tick()}, which run the tasks that are due
+     * @param wheelSize Number of buckets, rounded up to a power of 2
+     */
+    TimingWheel(int wheelSize) {
+        this.executor = Runnable::run;
+        this.buckets = new Timeout[Integer.highestOneBit(Math.max(1, wheelSize - 1) << 1)];
+        this.mask = this.buckets.length - 1;
+        this.tickNanos = 0;
+        this.ticker = null;
+    }
+
+    /**
+     * Runs a task once the real time delay has passed, rounded up to the next tick
+     * @return The timeout, which may be cancelled before the task runs
+     */
+    Timeout schedule(long delay, TimeUnit unit, Runnable task) {
+        if (!started.get() && started.compareAndSet(false, true)) {
+            this.ticker.start();
+        }
+        // Due once the tick ending at or after the deadline has passed
+        final long deadline = System.nanoTime() - startTime + unit.toNanos(delay);
+        return schedule(new Timeout(task, (deadline + tickNanos - 1) / tickNanos - 1));
+    }
+
+    /**
+     * Runs a task once the number of ticks have passed, counted from the last call to {@link #tick()}.
+     * Delays of less than 1 tick run on the next tick
+     * @return The timeout, which may be cancelled before the task runs
+     */
+    Timeout scheduleTicks(int ticks, Runnable task) {
+        return schedule(new Timeout(task, this.tick + Math.max(1, ticks) - 1));
+    }
+
+    private Timeout schedule(Timeout timeout) {
+        if (shutdown) {
+            timeout.expire(Runnable::run);
+            return timeout;
+        }
+        pending.add(timeout);
+        if (shutdown && pending.remove(timeout)) {
+            // The wheel may have already stopped
+            timeout.expire(Runnable::run);
+        } else if (idle) {
+            LockSupport.unpark(ticker);
+        }
+        return timeout;
+    }
+
+    /**
+     * Stops the wheel, and runs every task that has not ran yet on this thread.
+     * A wheel advanced by {@link #tick()} must be shut down on the thread that advances it.
+     */
+    void shutdown() {
+        shutdown = true;
+        if (started.get()) {
+            LockSupport.unpark(ticker);
+            try {
+                ticker.join();
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        }
+        for (int i = 0; i < buckets.length; i++) {
+            for (Timeout timeout = buckets[i]; timeout != null; timeout = timeout.next) {
+                timeout.expire(Runnable::run);
+            }
+            buckets[i] = null;
+        }
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            timeout.expire(Runnable::run);
+        }
+    }
+
+    /**
+     * Advances the wheel by one tick, handing each task that is due to the executor
+     */
+    void tick() {
+        if (shutdown) {
+            return;
+        }
+        final long tick = this.tick;
+        transferPending(tick);
+        // Advanced first, so the tasks that are due count their own delays from the next tick
+        this.tick = tick + 1;
+        expireBucket(tick);
+    }
+
+    private void runTicker() {
+        while (!shutdown) {
+            if (size == 0 && pending.isEmpty()) {
+                idle = true;
+                if (pending.isEmpty() && !shutdown) {
+                    LockSupport.park(this);
+                }
+                idle = false;
+                // Nothing was waiting on the ticks that passed while parked
+                tick = Math.max(tick, (System.nanoTime() - startTime) / tickNanos);
+                continue;
+            }
+            final long deadline = startTime + (tick + 1) * tickNanos;
+            long wait;
+            while ((wait = deadline - System.nanoTime()) > 0 && !shutdown) {
+                LockSupport.parkNanos(this, wait);
+            }
+            tick();
+        }
+    }
+
+    /**
+     * Moves newly scheduled timeouts into the bucket of the tick they are due at
+     */
+    private void transferPending(long tick) {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.state == Timeout.CANCELLED) {
+                continue;
+            }
+            final long due = Math.max(tick, timeout.dueTick);
+            timeout.remainingRounds = (due - tick) / buckets.length;
+            final int index = (int) (due & mask);
+            final Timeout head = buckets[index];
+            timeout.next = head;
+            if (head != null) {
+                head.prev = timeout;
+            }
+            buckets[index] = timeout;
+            size++;
+        }
+    }
+
+    private void expireBucket(long tick) {
+        final int index = (int) (tick & mask);
+        Timeout timeout = buckets[index];
+        while (timeout != null) {
+            final Timeout next = timeout.next;
+            if (timeout.state == Timeout.CANCELLED || timeout.remainingRounds <= 0) {
+                unlink(index, timeout);
+                timeout.expire(executor);
+            } else {
+                timeout.remainingRounds--;
+            }
+            timeout = next;
+        }
+    }
+
+    private void unlink(int index, Timeout timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            buckets[index] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.next = null;
+        timeout.prev = null;
+        size--;
+    }
+
+    /**
+     * A task waiting in the wheel
+     */
+    static final class Timeout {
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+        private static final int PENDING = 0;
+        private static final int EXPIRED = 1;
+        private static final int CANCELLED = 2;
+
+        private final Runnable task;
+        private final long dueTick;
+        private volatile int state = PENDING;
+        /*
+         * Only accessed by the ticker
+         */
+        private long remainingRounds;
+        private Timeout next;
+        private Timeout prev;
+
+        private Timeout(Runnable task, long dueTick) {
+            this.task = task;
+            this.dueTick = dueTick;
+        }
+
+        /**
+         * Stops the task from running. The ticker drops the timeout when it next reaches its bucket.
+         * @return If the task had not ran yet
+         */
+        boolean cancel() {
+            return STATE.compareAndSet(this, PENDING, CANCELLED);
+        }
+
+        /**
+         * Hands the task to the executor, unless it was cancelled
+         */
+        private void expire(Executor executor) {
+            if (!STATE.compareAndSet(this, PENDING, EXPIRED)) {
+                return;
+            }
+            try {
+                executor.execute(task);
+            } catch (Throwable e) {
+                TaskChainUtil.logError("TaskChain Exception in delayed task: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+}
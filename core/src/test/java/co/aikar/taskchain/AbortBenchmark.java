@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of aborting a chain, through an abortIfNull guard and through {@link TaskChain#abort()}
+ * called by a task, against the same chain running to completion.
+ *
+ * Not ran as part of the tests. Run the main method with the test classpath, and compare the later rounds,
+ * once the chains are compiled by the JIT.
+ */
+public class AbortBenchmark {
+    private static final int EXECUTIONS = 1000000;
+    private static long sink;
+
+    public static void main(String[] args) {
+        final TaskChainFactory factory = new TaskChainFactory(TestGameInterface.direct());
+        for (int round = 1; round <= 10; round++) {
+            final long completed = time(factory, 0);
+            final long guard = time(factory, 1);
+            final long abort = time(factory, 2);
+            System.out.printf("Round %d: completed %.1f ns, abortIfNull %.1f ns, abort() %.1f ns per chain%n", round,
+                    completed / (double) EXECUTIONS, guard / (double) EXECUTIONS, abort / (double) EXECUTIONS);
+        }
+        System.out.println("(" + sink + ")");
+        factory.shutdown(1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param mode 0 to complete, 1 to abort through abortIfNull, 2 to abort by calling abort()
+     */
+    private static long time(TaskChainFactory factory, int mode) {
+        final long start = System.nanoTime();
+        for (int i = 0; i < EXECUTIONS; i++) {
+            final int seed = i;
+            factory.newChain()
+                    .currentFirst(() -> mode == 1 ? null : seed)
+                    .abortIfNull()
+                    .current((Integer value) -> {
+                        if (mode == 2) {
+                            TaskChain.abort();
+                        }
+                        return value + 1;
+                    })
+                    .currentLast((Integer value) -> sink += value)
+                    .execute();
+        }
+        return System.nanoTime() - start;
+    }
+}
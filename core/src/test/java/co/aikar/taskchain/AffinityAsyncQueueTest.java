@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Idle workers of an {@link AffinityAsyncQueue} only steal from a worker once it is saturated
+ */
+public class AffinityAsyncQueueTest {
+    private final AffinityAsyncQueue queue = new AffinityAsyncQueue(2, 4);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<Thread> ran = new CopyOnWriteArrayList<>();
+
+    @After
+    public void tearDown() throws Exception {
+        this.release.countDown();
+        this.queue.shutdown(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void tasksBelowThresholdWaitForTheirWorker() throws Exception {
+        final Thread owner = block();
+        final CountDownLatch done = post(3);
+        assertFalse(done.await(100, TimeUnit.MILLISECONDS));
+        this.release.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        for (Thread thread : this.ran) {
+            assertEquals(owner, thread);
+        }
+    }
+
+    @Test
+    public void saturatedWorkerIsStolenFrom() throws Exception {
+        final Thread owner = block();
+        final CountDownLatch done = post(8);
+        // Stolen until fewer than the threshold are left queued behind the blocked task
+        while (this.ran.size() < 5) {
+            Thread.sleep(1);
+        }
+        Thread.sleep(100);
+        assertEquals(3, done.getCount());
+        this.release.countDown();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        int onOwner = 0;
+        for (Thread thread : this.ran) {
+            if (thread == owner) {
+                onOwner++;
+            }
+        }
+        assertEquals(3, onOwner);
+    }
+
+    /**
+     * Blocks the worker for affinity 0 until {@link #release} is counted down
+     *
+     * @return The thread of the blocked worker
+     */
+    private Thread block() throws InterruptedException {
+        final Thread[] owner = new Thread[1];
+        this.queue.postAsync(() -> {
+            owner[0] = Thread.currentThread();
+            this.started.countDown();
+            try {
+                this.release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, 0);
+        assertTrue(this.started.await(10, TimeUnit.SECONDS));
+        return owner[0];
+    }
+
+    private CountDownLatch post(int tasks) {
+        final CountDownLatch done = new CountDownLatch(tasks);
+        for (int i = 0; i < tasks; i++) {
+            this.queue.postAsync(() -> {
+                this.ran.add(Thread.currentThread());
+                done.countDown();
+            }, 0);
+        }
+        return done;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes chains whose async tasks each walk a large block of state kept per key, as a plugin keeping state per
+ * player does, once on the async queue of the game and once on an {@link AffinityAsyncQueue} keyed by player.
+ * With affinity the state of a key stays in the cache of the worker running it, instead of moving between cores.
+ *
+ * Not ran as part of the tests. Run the main method with the test classpath on a machine with several cores,
+ * and compare the later rounds, once the chains are compiled by the JIT.
+ */
+public class AffinityBenchmark {
+    private static final int CHAINS = 20000;
+    private static final int KEYS = 64;
+    /**
+     * 128KB of state per key, 8MB in total, so the state of every key does not fit in the cache of one core
+     */
+    private static final int STATE = 16384;
+    private static final long[][] state = new long[KEYS][STATE];
+    private static volatile long sink;
+
+    public static void main(String[] args) throws InterruptedException {
+        final int threads = Runtime.getRuntime().availableProcessors();
+        final TestGameInterface sharedGame = TestGameInterface.threaded();
+        final TaskChainFactory shared = new TaskChainFactory(sharedGame);
+        final TestGameInterface affinityGame = TestGameInterface.threaded();
+        final TaskChainFactory affinity = new TaskChainFactory(affinityGame);
+        affinity.setAffinityQueue(new AffinityAsyncQueue(threads));
+
+        for (int round = 1; round <= 10; round++) {
+            final long pooled = time(shared);
+            final long keyed = time(affinity);
+            System.out.printf("Round %d: game async queue %.1f ns, affinity queue %.1f ns per chain (%d threads)%n",
+                    round, pooled / (double) CHAINS, keyed / (double) CHAINS, threads);
+        }
+        System.out.println("(" + sink + ")");
+        shared.shutdown(1, TimeUnit.SECONDS);
+        affinity.shutdown(1, TimeUnit.SECONDS);
+        sharedGame.shutdown();
+        affinityGame.shutdown();
+    }
+
+    private static long time(TaskChainFactory factory) throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(CHAINS);
+        final long start = System.nanoTime();
+        for (int i = 0; i < CHAINS; i++) {
+            final int key = i % KEYS;
+            final TaskChain<?> chain = factory.newChain();
+            chain.setAffinity(key);
+            chain.asyncFirst(() -> walk(key, 1))
+                    .async((Long value) -> value + walk(key, 3))
+                    .asyncLast((Long value) -> sink = value)
+                    .execute(done::countDown);
+        }
+        done.await();
+        return System.nanoTime() - start;
+    }
+
+    private static long walk(int key, long add) {
+        final long[] values = state[key];
+        long sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            sum += values[i] += add;
+        }
+        return sum;
+    }
+}
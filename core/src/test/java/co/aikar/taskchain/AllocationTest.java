@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import co.aikar.taskchain.TaskChainTasks.GenericTask;
+import com.sun.management.HotSpotDiagnosticMXBean;
+import com.sun.management.ThreadMXBean;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Allocation budgets, measured on the calling thread with {@link ThreadMXBean#getThreadAllocatedBytes(long)}.
+ *
+ * Sizes are for a 64 bit HotSpot JVM with compressed oops. Each operation is warmed up before it is measured,
+ * and the budget is the average number of bytes allocated per operation.
+ * Operations that allocate nothing once warmed up keep a budget of 0. Less than a byte per operation is tolerated,
+ * for one off allocations of the JVM while measuring, so anything allocated on every operation still fails.
+ */
+public class AllocationTest {
+    /**
+     * Operations ran to warm up, then again to measure them
+     */
+    private static final int RUNS = 20000;
+
+    private ThreadMXBean threads;
+    private TestGameInterface game;
+    private TaskChainFactory factory;
+
+    @Before
+    public void setUp() throws Exception {
+        final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue("Thread allocation counters are not available",
+                bean instanceof ThreadMXBean && ((ThreadMXBean) bean).isThreadAllocatedMemorySupported());
+        final HotSpotDiagnosticMXBean diagnostics = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+        Assume.assumeTrue("Budgets assume compressed oops",
+                diagnostics != null && "true".equals(diagnostics.getVMOption("UseCompressedOops").getValue()));
+        this.threads = (ThreadMXBean) bean;
+        this.threads.setThreadAllocatedMemoryEnabled(true);
+        this.game = TestGameInterface.direct();
+        this.factory = new TaskChainFactory(this.game);
+    }
+
+    @After
+    public void tearDown() {
+        if (this.factory != null) {
+            this.factory.shutdown(1, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void pooledTemplateDoesNotAllocate() throws Exception {
+        this.factory.setChainPooling(true);
+        final ChainTemplate<Integer> template = this.factory.newTemplate((TaskChain<Integer> chain) -> chain
+                .current((Integer value) -> value + 1)
+                .current((Integer value) -> value + 1)
+                .currentLast((Integer value) -> {}));
+        final Integer seed = 5;
+        final Consumer<Boolean> done = finished -> {};
+        assertBudget("Pooled template execution", 0, i -> template.execute(seed, done));
+        final ChainTemplate<Integer> compiled = template.compile();
+        assertBudget("Pooled compiled template execution", 0, i -> compiled.execute(seed, done));
+    }
+
+    @Test
+    public void switchingThreadsDoesNotAllocate() throws Exception {
+        this.factory.setChainPooling(true);
+        final ChainTemplate<Integer> template = this.factory.newTemplate((TaskChain<Integer> chain) -> chain
+                .sync((Integer value) -> value + 1)
+                .async((Integer value) -> value + 1)
+                .syncLast((Integer value) -> {}));
+        final Integer seed = 5;
+        final Consumer<Boolean> done = finished -> {};
+        assertBudget("Pooled template switching threads", 0, i -> template.execute(seed, done));
+    }
+
+    @Test
+    public void primitiveTasksDoNotBox() throws Exception {
+        this.factory.setChainPooling(true);
+        final Integer seed = 5;
+        // Values stay outside of the Integer and Long caches, so any boxing would allocate
+        final ChainTemplate<Integer> template = this.factory.newTemplate((TaskChain<Integer> chain) -> chain
+                .currentToInt((Integer value) -> value + 1000)
+                .currentIntToInt(value -> value * 3)
+                .currentIntToInt(value -> value - 7)
+                .currentInt(value -> value > 0 ? seed : null)
+                .currentToLong((Integer value) -> value * 100000L)
+                .currentLongToLong(value -> value + 12345)
+                .currentLong(value -> seed)
+                .currentToDouble((Integer value) -> value * 1.5)
+                .currentDoubleToDouble(value -> value / 2)
+                .currentDouble(value -> value > 0 ? seed : null)
+                .currentLast((Integer value) -> {}));
+        final Consumer<Boolean> done = finished -> {};
+        assertBudget("Pooled template of primitive tasks", 0, i -> template.execute(seed, done));
+    }
+
+    @Test
+    public void newChain() throws Exception {
+        final TaskChain<?>[] chains = new TaskChain<?>[RUNS];
+        assertBudget("TaskChain", 80, i -> chains[i] = this.factory.newChain());
+    }
+
+    @Test
+    public void taskHolder() throws Exception {
+        final TaskChain<?>[] chains = new TaskChain<?>[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            chains[i] = this.factory.newChain();
+        }
+        final GenericTask task = () -> {};
+        assertBudget("TaskHolder", 24, i -> chains[i].sync(task));
+    }
+
+    @Test
+    public void sharedChain() throws Exception {
+        final GenericTask task = () -> {};
+        assertBudget("SharedTaskChain", 352, i -> this.factory.newSharedChain("test").current(task).execute());
+    }
+
+    @Test
+    public void futures() throws Exception {
+        final List<CompletableFuture<Integer>> futures = Arrays.asList(
+                CompletableFuture.completedFuture(1), CompletableFuture.completedFuture(2));
+        assertBudget("futures()", 448, i -> this.factory.newChain().futures(futures).execute());
+    }
+
+    @Test
+    public void postAsync() throws Exception {
+        final TaskChainAsyncQueue queue = new TaskChainAsyncQueue();
+        final Runnable task = () -> {};
+        try {
+            // Gives the pool time to take each task, so it does not start a thread for every post
+            assertBudget("TaskChainAsyncQueue.postAsync", 48, i -> {
+                queue.postAsync(task);
+                if ((i & 63) == 0) {
+                    Thread.sleep(1);
+                }
+            });
+        } finally {
+            queue.shutdown(1, TimeUnit.SECONDS);
+        }
+    }
+
+    private interface Operation {
+        void run(int i) throws Exception;
+    }
+
+    private void assertBudget(String name, long budget, Operation operation) throws Exception {
+        for (int i = 0; i < RUNS; i++) {
+            operation.run(i);
+        }
+        final long id = Thread.currentThread().getId();
+        final long before = this.threads.getThreadAllocatedBytes(id);
+        for (int i = 0; i < RUNS; i++) {
+            operation.run(i);
+        }
+        final double perRun = (this.threads.getThreadAllocatedBytes(id) - before) / (double) RUNS;
+        assertTrue(name + " allocated " + perRun + " bytes, the budget is " + budget, perRun < budget + 1);
+    }
+}
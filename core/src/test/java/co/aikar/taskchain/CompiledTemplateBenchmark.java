@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Compares executing a template of eight tasks on the current thread, with and without {@link ChainTemplate#compile()}.
+ *
+ * Not ran as part of the tests. Run the main method with the test classpath, and compare the later rounds,
+ * once both templates are compiled by the JIT. Needs Java 15 or later for compile() to generate classes,
+ * {@link CompiledTemplateTest} checks the generated classes behave the same.
+ */
+public class CompiledTemplateBenchmark {
+    private static final int EXECUTIONS = 2000000;
+    private static long sink;
+
+    public static void main(String[] args) {
+        final TaskChainFactory factory = new TaskChainFactory(TestGameInterface.direct());
+        factory.setChainPooling(true);
+        final ChainTemplate<Integer> template = factory.newTemplate((TaskChain<Integer> chain) -> chain
+                .current((Integer value) -> value + 1)
+                .current((Integer value) -> value * 3)
+                .current((Integer value) -> value - 2)
+                .current((Integer value) -> value ^ 5)
+                .current((Integer value) -> value + 7)
+                .current((Integer value) -> value & 1023)
+                .current((Integer value) -> value * 2)
+                .currentLast((Integer value) -> sink += value));
+        final ChainTemplate<Integer> compiled = template.compile();
+        final Consumer<Boolean> done = finished -> {};
+
+        long interpretedTotal = 0;
+        long compiledTotal = 0;
+        for (int round = 1; round <= 10; round++) {
+            final long interpreted = time(template, done);
+            final long generated = time(compiled, done);
+            System.out.printf("Round %d: interpreted %.1f ns, compiled %.1f ns per execution%n", round,
+                    interpreted / (double) EXECUTIONS, generated / (double) EXECUTIONS);
+            if (round > 5) {
+                interpretedTotal += interpreted;
+                compiledTotal += generated;
+            }
+        }
+        System.out.printf("Compiled template is %.0f%% faster over the last 5 rounds%n",
+                100.0 * (interpretedTotal - compiledTotal) / interpretedTotal);
+        System.out.println("(" + sink + ")");
+        factory.shutdown(1, TimeUnit.SECONDS);
+    }
+
+    private static long time(ChainTemplate<Integer> template, Consumer<Boolean> done) {
+        final long start = System.nanoTime();
+        for (int i = 0; i < EXECUTIONS; i++) {
+            template.execute(i & 127, done);
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A compiled {@link ChainTemplate} must behave exactly like the template it was compiled from
+ */
+public class CompiledTemplateTest {
+    private TestGameInterface game;
+    private TaskChainFactory factory;
+
+    @Before
+    public void setUp() {
+        this.game = TestGameInterface.threaded();
+        this.factory = new TaskChainFactory(this.game);
+    }
+
+    @After
+    public void tearDown() {
+        this.factory.shutdown(1, TimeUnit.SECONDS);
+        this.game.shutdown();
+    }
+
+    @Test
+    public void longSegmentsAcrossThreads() throws Exception {
+        final AtomicReference<Object> result = new AtomicReference<>();
+        final ChainTemplate<Integer> template = this.factory.newTemplate((TaskChain<Integer> chain) -> {
+            for (int i = 0; i < 9; i++) {
+                chain.current((Integer value) -> value * 2 + 1);
+            }
+            chain.async((Integer value) -> value - 1)
+                    .current((Integer value) -> value + 2)
+                    .syncToInt((Integer value) -> value * 3)
+                    .syncIntToInt(value -> value + 4)
+                    .sync((Integer value) -> value + 5)
+                    .currentLast(result::set);
+        });
+        run(template, 3);
+        final Object expected = result.get();
+        assertEquals(6153, expected);
+        run(template.compile(), 3);
+        assertEquals(expected, result.get());
+        run(template.compile().compile(), 3);
+        assertEquals(expected, result.get());
+    }
+
+    @Test
+    public void everyTaskKindCompiles() throws Exception {
+        Assume.assumeTrue(SegmentCompiler.isSupported());
+        final List<Object> results = new ArrayList<>();
+        final ChainTemplate<Integer> template = this.factory.newTemplate((TaskChain<Integer> chain) -> {
+            TaskChain<Integer> next = chain;
+            // 45 tasks in one segment, split over two generated classes
+            for (int i = 0; i < 3; i++) {
+                next = next
+                        .current((Integer value) -> value + 1)
+                        .currentWithChain((TaskChain<?> c, Integer value) -> value * 2)
+                        .current((Integer value, Integer add) -> value + add, 3)
+                        .current((Integer value, Integer add, Integer mul) -> (value + add) * mul, 1, 2)
+                        .current((Integer value, Integer a, Integer b, Integer c) -> value + a + b + c, 1, 2, 3)
+                        .currentToInt((Integer value) -> value - 1)
+                        .currentIntToInt(value -> value * 3)
+                        .currentInt(value -> value + 1)
+                        .currentToLong((Integer value) -> value * 5L)
+                        .currentLongToLong(value -> value - 7)
+                        .currentLong(value -> (int) (value % 100000))
+                        .currentToDouble((Integer value) -> value / 2.0)
+                        .currentDoubleToDouble(value -> value * 3)
+                        .currentDouble(value -> (int) value)
+                        .currentLast(results::add)
+                        .current(() -> results.add("generic"))
+                        .currentFirst(results::size);
+            }
+        });
+        run(template, 1);
+        final List<Object> expected = new ArrayList<>(results);
+        assertEquals(6, expected.size());
+        results.clear();
+        final ChainTemplate<Integer> compiled = template.compile();
+        assertFalse(template.isCompiled());
+        assertTrue(compiled.isCompiled());
+        run(compiled, 1);
+        assertEquals(expected, results);
+    }
+
+    @Test
+    public void abortStopsCompiledSegment() throws Exception {
+        final List<Integer> ran = new ArrayList<>();
+        final ChainTemplate<Integer> template = this.factory.<Integer>newTemplate(chain -> chain
+                .current((Integer value) -> {
+                    ran.add(1);
+                    return value;
+                })
+                .current((Integer value) -> {
+                    ran.add(2);
+                    return value;
+                })
+                .abortIf(5)
+                .current((Integer value) -> {
+                    ran.add(3);
+                    return value;
+                })).compile();
+        final CompletableFuture<Boolean> done = new CompletableFuture<>();
+        template.execute(5, (Consumer<Boolean>) done::complete);
+        assertFalse(await(done));
+        assertEquals(2, ran.size());
+    }
+
+    @Test
+    public void errorsReportTheTaskThatFailed() throws Exception {
+        final TaskChainTasks.Task<Integer, Integer> failing = value -> {
+            throw new IllegalStateException("failed");
+        };
+        final AtomicReference<Integer> index = new AtomicReference<>();
+        final ChainTemplate<Integer> template = this.factory.<Integer>newTemplate(chain -> chain
+                .current((Integer value) -> value)
+                .current((Integer value) -> value)
+                .current((Integer value) -> value)
+                .current((Integer value) -> value)
+                .current((Integer value) -> {
+                    index.set(TaskChain.getCurrentChain().getCurrentActionIndex());
+                    return value;
+                })
+                .current(failing)).compile();
+        final CompletableFuture<TaskChainTasks.Task<?, ?>> errored = new CompletableFuture<>();
+        final CompletableFuture<Boolean> done = new CompletableFuture<>();
+        template.execute(1, done::complete, (e, task) -> errored.complete(task));
+        assertSame(failing, await(errored));
+        assertFalse(await(done));
+        assertEquals(4, (int) index.get());
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        return future.get(10, TimeUnit.SECONDS);
+    }
+
+    private static void run(ChainTemplate<Integer> template, int seed) throws Exception {
+        final CompletableFuture<Boolean> done = new CompletableFuture<>();
+        template.execute(seed, (Consumer<Boolean>) done::complete);
+        assertTrue(await(done));
+    }
+}
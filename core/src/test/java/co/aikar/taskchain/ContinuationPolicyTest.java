@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link ContinuationPolicy#TARGET_EXECUTOR} only moves a chain off of threads that do not belong to TaskChain
+ */
+public class ContinuationPolicyTest {
+    private TestGameInterface game;
+    private TaskChainFactory factory;
+
+    @Before
+    public void setUp() {
+        this.game = TestGameInterface.threaded();
+        this.factory = new TaskChainFactory(this.game);
+        this.factory.setContinuationPolicy(ContinuationPolicy.TARGET_EXECUTOR);
+    }
+
+    @After
+    public void tearDown() {
+        this.factory.shutdown(1, TimeUnit.SECONDS);
+        this.game.shutdown();
+    }
+
+    @Test
+    public void staysOnAsyncQueueThread() throws Exception {
+        final CompletableFuture<Thread> continuedOn = new CompletableFuture<>();
+        final CompletableFuture<Thread> completedOn = new CompletableFuture<>();
+        this.factory.newChain()
+                .<Integer>asyncFirstCallback(next -> this.game.postAsync(() -> {
+                    completedOn.complete(Thread.currentThread());
+                    next.accept(1);
+                }))
+                .asyncLast((Integer value) -> continuedOn.complete(Thread.currentThread()))
+                .execute();
+        assertEquals(await(completedOn), await(continuedOn));
+        assertEquals("Only the callback task should post to the async queue", 1, this.game.asyncPosts.get());
+    }
+
+    @Test
+    public void leavesForeignThread() throws Exception {
+        final CompletableFuture<Thread> continuedOn = new CompletableFuture<>();
+        final CompletableFuture<Integer> future = new CompletableFuture<>();
+        this.factory.newChain()
+                .asyncFirstFuture(() -> future)
+                .asyncLast((Integer value) -> continuedOn.complete(Thread.currentThread()))
+                .execute();
+        new Thread(() -> future.complete(1), "Foreign Thread").start();
+        final Thread thread = await(continuedOn);
+        assertTrue("Continued on " + thread.getName(), thread.getName().startsWith("TaskChainAsyncQueue Thread"));
+        assertEquals(1, this.game.asyncPosts.get());
+    }
+
+    @Test
+    public void staysOnDelayBatch() throws Exception {
+        final CompletableFuture<Boolean> done = new CompletableFuture<>();
+        this.factory.newChain()
+                .delay(10, TimeUnit.MILLISECONDS)
+                .async(() -> {})
+                .execute(done::complete);
+        assertTrue(await(done));
+        assertEquals("Only the batch of the delay should post to the async queue", 1, this.game.asyncPosts.get());
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        return future.get(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,365 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Behavior every {@link ExecutionEngine} must share: passing values between threads, aborts, errors,
+ * shared chains and done callbacks.
+ */
+@RunWith(Parameterized.class)
+public class ExecutionEngineConformanceTest {
+    private final ExecutionEngine engine;
+    private TestGameInterface game;
+    private TaskChainFactory factory;
+
+    public ExecutionEngineConformanceTest(String name, ExecutionEngine engine) {
+        this.engine = engine;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> engines() {
+        return Arrays.asList(
+                new Object[] {"DEFAULT", ExecutionEngine.DEFAULT},
+                new Object[] {"COMPLETABLE_FUTURE", ExecutionEngine.COMPLETABLE_FUTURE}
+        );
+    }
+
+    @Before
+    public void setUp() {
+        this.game = TestGameInterface.threaded();
+        this.factory = new TaskChainFactory(this.game);
+        this.factory.setExecutionEngine(this.engine);
+    }
+
+    @After
+    public void tearDown() {
+        this.factory.shutdown(1, TimeUnit.SECONDS);
+        this.game.shutdown();
+    }
+
+    @Test
+    public void passesValuesBetweenThreads() throws Exception {
+        final CompletableFuture<Integer> result = new CompletableFuture<>();
+        final CompletableFuture<Boolean> done = new CompletableFuture<>();
+        final AtomicBoolean wrongThread = new AtomicBoolean();
+        this.factory.newChain()
+                .syncFirst(() -> {
+                    wrongThread.compareAndSet(false, !this.game.isMainThread());
+                    return 1;
+                })
+                .async((Integer value) -> {
+                    wrongThread.compareAndSet(false, this.game.isMainThread());
+                    return value + 1;
+                })
+                .current((Integer value) -> value * 10)
+                .sync((Integer value) -> {
+                    wrongThread.compareAndSet(false, !this.game.isMainThread());
+                    return value + 1;
+                })
+                .asyncLast(result::complete)
+                .execute(done::complete);
+        assertEquals(21, (int) await(result));
+        assertTrue(await(done));
+        assertFalse("A task ran on the wrong thread", wrongThread.get());
+    }
+
+    @Test
+    public void futureAndCallbackTasks() throws Exception {
+        final CompletableFuture<String> result = new CompletableFuture<>();
+        final CompletableFuture<Integer> future = new CompletableFuture<>();
+        this.factory.newChain()
+                .asyncFirstFuture(() -> future)
+                .syncCallback((Integer value, Consumer<String> next) ->
+                        this.game.postAsync(() -> next.accept(value + "!")))
+                .asyncLast(result::complete)
+                .execute();
+        this.game.postAsync(() -> future.complete(5));
+        assertEquals("5!", await(result));
+    }
+
+    @Test
+    public void abortIfNullStopsTheChain() throws Exception {
+        final CompletableFuture<Boolean> done = new CompletableFuture<>();
+        final AtomicBoolean ran = new AtomicBoolean();
+        final AtomicReference<Object> abortArg = new AtomicReference<>();
+        this.factory.newChain()
+                .asyncFirst(() -> null)
+                .abortIfNull(new TaskChainAbortAction<String, Object, Object>() {
+                    @Override
+                    public void onAbort(TaskChain<?> chain, String arg1) {
+                        abortArg.set(arg1);
+                    }
+                }, "aborted")
+                .sync(() -> ran.set(true))
+                .execute(done::complete);
+        assertFalse(await(done));
+        assertFalse("A task after the abort ran", ran.get());
+        assertEquals("aborted", abortArg.get());
+    }
+
+    @Test
+    public void abortFromTask() throws Exception {
+        final CompletableFuture<Boolean> done = new CompletableFuture<>();
+        final AtomicBoolean ran = new AtomicBoolean();
+        final AtomicBoolean errored = new AtomicBoolean();
+        this.factory.newChain()
+                .sync(TaskChain::abort)
+                .async(() -> ran.set(true))
+                .execute(done::complete, (e, task) -> errored.set(true));
+        assertFalse(await(done));
+        assertFalse("A task after the abort ran", ran.get());
+        assertFalse("An abort is not an error", errored.get());
+    }
+
+    @Test
+    public void abortChainStopsTheChain() throws Exception {
+        final CompletableFuture<Boolean> done = new CompletableFuture<>();
+        final AtomicBoolean ran = new AtomicBoolean();
+        this.factory.newChain()
+                .async(() -> {})
+                .abortChain()
+                .sync(() -> ran.set(true))
+                .execute(done::complete);
+        assertFalse(await(done));
+        assertFalse("A task after the abort ran", ran.get());
+    }
+
+    @Test
+    public void errorInTask() throws Exception {
+        final CompletableFuture<Boolean> done = new CompletableFuture<>();
+        final CompletableFuture<Exception> error = new CompletableFuture<>();
+        final AtomicReference<TaskChainTasks.Task<?, ?>> erroredTask = new AtomicReference<>();
+        final AtomicBoolean ran = new AtomicBoolean();
+        final TaskChainTasks.Task<Integer, Integer> failing = value -> {
+            throw new IllegalStateException("failed");
+        };
+        this.factory.newChain()
+                .asyncFirst(() -> 1)
+                .async(failing)
+                .sync(() -> ran.set(true))
+                .execute(done::complete, (e, task) -> {
+                    erroredTask.set(task);
+                    error.complete(e);
+                });
+        assertEquals("failed", await(error).getMessage());
+        assertSame(failing, erroredTask.get());
+        assertFalse(await(done));
+        assertFalse("A task after the error ran", ran.get());
+    }
+
+    @Test
+    public void errorInFuture() throws Exception {
+        final CompletableFuture<Boolean> done = new CompletableFuture<>();
+        final CompletableFuture<Exception> error = new CompletableFuture<>();
+        final AtomicReference<TaskChainTasks.Task<?, ?>> erroredTask = new AtomicReference<>();
+        final CompletableFuture<Integer> future = new CompletableFuture<>();
+        final TaskChainTasks.FutureFirstTask<Integer> failing = () -> future;
+        this.factory.newChain()
+                .asyncFirstFuture(failing)
+                .sync((Integer value) -> value)
+                .execute(done::complete, (e, task) -> {
+                    erroredTask.set(task);
+                    error.complete(e);
+                });
+        future.completeExceptionally(new IllegalStateException("failed"));
+        assertEquals("failed", await(error).getMessage());
+        assertSame(failing, erroredTask.get());
+        assertFalse(await(done));
+    }
+
+    @Test
+    public void errorHandingStageToThread() throws Exception {
+        // The default engine leaves a rejected post to the thread posting it
+        Assume.assumeTrue(this.engine == ExecutionEngine.COMPLETABLE_FUTURE);
+        final CompletableFuture<Boolean> done = new CompletableFuture<>();
+        final CompletableFuture<Exception> error = new CompletableFuture<>();
+        final AtomicReference<TaskChainTasks.Task<?, ?>> erroredTask = new AtomicReference<>();
+        final TaskChainTasks.Task<Integer, Integer> rejected = value -> value;
+        this.factory.newChain()
+                .asyncFirst(() -> {
+                    this.game.stopMainThread();
+                    return 1;
+                })
+                .sync(rejected)
+                .execute(done::complete, (e, task) -> {
+                    erroredTask.set(task);
+                    error.complete(e);
+                });
+        assertTrue(await(error) instanceof RejectedExecutionException);
+        assertSame(rejected, erroredTask.get());
+        assertFalse(await(done));
+    }
+
+    @Test
+    public void sharedChainsRunInOrder() throws Exception {
+        final List<String> order = new CopyOnWriteArrayList<>();
+        final CompletableFuture<Boolean> second = new CompletableFuture<>();
+        final CompletableFuture<Object> release = new CompletableFuture<>();
+        this.factory.newSharedChain("shared")
+                .async(() -> order.add("first start"))
+                .asyncFuture(() -> release)
+                .async(() -> order.add("first end"))
+                .execute();
+        this.factory.newSharedChain("shared")
+                .async(() -> order.add("second"))
+                .execute(second::complete);
+        Thread.sleep(50);
+        assertEquals(Arrays.asList("first start"), order);
+        release.complete(null);
+        assertTrue(await(second));
+        assertEquals(Arrays.asList("first start", "first end", "second"), order);
+    }
+
+    @Test
+    public void sharedChainContinuesAfterAbort() throws Exception {
+        final CompletableFuture<Boolean> first = new CompletableFuture<>();
+        final CompletableFuture<Boolean> second = new CompletableFuture<>();
+        this.factory.newSharedChain("shared")
+                .async(TaskChain::abort)
+                .execute(first::complete);
+        this.factory.newSharedChain("shared")
+                .async(() -> {})
+                .execute(second::complete);
+        assertFalse(await(first));
+        assertTrue(await(second));
+    }
+
+    @Test
+    public void doneCallbackRunsOnce() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        final CompletableFuture<TaskChain<?>> doneChain = new CompletableFuture<>();
+        final TaskChain<?> chain = this.factory.newChain()
+                .async(() -> {})
+                .sync(() -> {});
+        chain.execute(() -> {
+            calls.incrementAndGet();
+            doneChain.complete(TaskChain.getCurrentChain());
+        });
+        assertSame(chain, await(doneChain));
+        Thread.sleep(50);
+        assertEquals(1, calls.get());
+        assertNull("The chain must not stay current after its done callback", TaskChain.getCurrentChain());
+    }
+
+    @Test
+    public void doneCallbackAfterDelay() throws Exception {
+        final CompletableFuture<Boolean> done = new CompletableFuture<>();
+        final AtomicInteger value = new AtomicInteger();
+        this.factory.newChain()
+                .asyncFirst(() -> 1)
+                .delay(10, TimeUnit.MILLISECONDS)
+                .asyncLast(value::set)
+                .execute(done::complete);
+        assertTrue(await(done));
+        assertEquals(1, value.get());
+    }
+
+    @Test
+    public void executeAllRunsAsyncChainsInParallel() throws Exception {
+        Assume.assumeTrue("Needs more than one processor", Runtime.getRuntime().availableProcessors() > 1);
+        final CountDownLatch started = new CountDownLatch(2);
+        final List<TaskChain<?>> chains = new ArrayList<>();
+        final List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            final CompletableFuture<Boolean> result = new CompletableFuture<>();
+            results.add(result);
+            chains.add(this.factory.newChain()
+                    .asyncFirst(() -> {
+                        started.countDown();
+                        try {
+                            return started.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            return false;
+                        }
+                    })
+                    .asyncLast(result::complete));
+        }
+        this.game.postToMain(() -> this.factory.executeAll(chains));
+        for (CompletableFuture<Boolean> result : results) {
+            assertTrue("The first tasks of the chains did not run at the same time", await(result));
+        }
+    }
+
+    @Test
+    public void executeAllRejectsChainsOfOtherFactories() throws Exception {
+        final TaskChainFactory other = new TaskChainFactory(this.game);
+        final CompletableFuture<Boolean> done = new CompletableFuture<>();
+        final TaskChain<?> chain = this.factory.newChain().currentFirst(() -> 1);
+        try {
+            this.factory.executeAll(Arrays.asList(chain, other.newChain().currentFirst(() -> 2)));
+            throw new AssertionError("Chain of another factory was accepted");
+        } catch (IllegalArgumentException expected) {
+            // No chain was started, so it may still be executed
+        } finally {
+            other.shutdown(1, TimeUnit.SECONDS);
+        }
+        chain.execute(done::complete);
+        assertTrue(await(done));
+    }
+
+    @Test
+    public void executeAllPostsMainChainsInGroups() throws Exception {
+        Assume.assumeTrue(this.engine == ExecutionEngine.DEFAULT);
+        final int chainCount = DefaultExecutionEngine.MAIN_GROUP_SIZE * 3 + 1;
+        final CountDownLatch done = new CountDownLatch(chainCount);
+        final List<TaskChain<?>> chains = new ArrayList<>();
+        for (int i = 0; i < chainCount; i++) {
+            chains.add(this.factory.newChain().syncFirst(() -> 1).currentLast((Integer value) -> done.countDown()));
+        }
+        this.factory.executeAll(chains);
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(4, this.game.mainPosts.get());
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        return future.get(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Retained size of chains parked on a future or in a delay, measured as the heap used after a full collection
+ * while holding many parked chains, against the heap used before creating them.
+ *
+ * The target is 200 bytes per chain, plus 32 bytes per task, which is a 24 byte holder and its slot in the
+ * tasks array, which grows by doubling. The 200 bytes cover the chain, its tasks array, and what the wait retains,
+ * such as the callback of the task and the completion registered with the future, or the timeout of the delay.
+ * Sizes are for a 64 bit HotSpot JVM with compressed oops.
+ */
+public class FootprintTest {
+    private static final int CHAINS = 50000;
+    private static final int CHAIN_BUDGET = 200;
+    private static final int TASK_BUDGET = 32;
+    private static final CompletableFuture<Integer> PENDING = new CompletableFuture<>();
+
+    private MemoryMXBean memory;
+    private TestGameInterface game;
+    private TaskChainFactory factory;
+
+    @Before
+    public void setUp() throws Exception {
+        final HotSpotDiagnosticMXBean diagnostics = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+        Assume.assumeTrue("Budgets assume compressed oops",
+                diagnostics != null && "true".equals(diagnostics.getVMOption("UseCompressedOops").getValue()));
+        Assume.assumeTrue("Measuring needs System.gc()",
+                "false".equals(diagnostics.getVMOption("DisableExplicitGC").getValue()));
+        this.memory = ManagementFactory.getMemoryMXBean();
+        this.game = TestGameInterface.direct();
+        this.factory = new TaskChainFactory(this.game);
+    }
+
+    @After
+    public void tearDown() {
+        if (this.factory != null) {
+            this.factory.shutdown(1, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void parkedOnFuture() {
+        for (int stages : new int[] {0, 8, 32}) {
+            assertFootprint("Chain of " + (stages + 3) + " tasks parked on a future", stages + 3,
+                    () -> addStages(this.factory.newChain().currentFirst(() -> 1), stages)
+                            .currentFuture((Integer value) -> PENDING)
+                            .currentLast((Integer value) -> {}));
+        }
+    }
+
+    @Test
+    public void parkedInDelay() {
+        for (int stages : new int[] {0, 8, 32}) {
+            assertFootprint("Chain of " + (stages + 3) + " tasks parked in a delay", stages + 3,
+                    () -> addStages(this.factory.newChain().currentFirst(() -> 1), stages)
+                            .delay(1, TimeUnit.HOURS)
+                            .currentLast((Integer value) -> {}));
+        }
+    }
+
+    private static TaskChain<Integer> addStages(TaskChain<Integer> chain, int stages) {
+        for (int i = 0; i < stages; i++) {
+            chain = chain.current((Integer value) -> value + 1);
+        }
+        return chain;
+    }
+
+    private interface ChainBuilder {
+        TaskChain<?> build();
+    }
+
+    private void assertFootprint(String name, int tasks, ChainBuilder builder) {
+        final TaskChain<?>[] chains = new TaskChain<?>[CHAINS];
+        final long before = usedAfterGc();
+        for (int i = 0; i < CHAINS; i++) {
+            chains[i] = builder.build();
+            chains[i].execute();
+        }
+        final double perChain = (usedAfterGc() - before) / (double) CHAINS;
+        final int budget = CHAIN_BUDGET + TASK_BUDGET * tasks;
+        assertTrue(name + " retained " + perChain + " bytes, the budget is " + budget, perChain < budget);
+        // Keeps the chains reachable until they are measured
+        assertTrue(chains[CHAINS - 1] != null);
+    }
+
+    private long usedAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return this.memory.getHeapMemoryUsage().getUsed();
+    }
+}
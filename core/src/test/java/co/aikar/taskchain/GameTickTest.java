@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Delays in game units run after that many ticks of {@link MainThreadQueue#tick()}, wherever in the tick they start
+ */
+public class GameTickTest {
+    private TestGameInterface game;
+    private TaskChainFactory factory;
+    private final List<String> ran = new ArrayList<>();
+    private int tick = 0;
+
+    @Before
+    public void setUp() {
+        this.game = TestGameInterface.ticked();
+        this.factory = new TaskChainFactory(this.game);
+    }
+
+    @After
+    public void tearDown() {
+        this.factory.shutdown(1, TimeUnit.SECONDS);
+        this.game.shutdown();
+    }
+
+    @Test
+    public void delayFromDrainedTask() {
+        this.game.postToMain(() -> delayedChain().execute());
+        advance(5);
+        assertEquals("[start at 1, 1 at 2, 1+2 at 4]", this.ran.toString());
+    }
+
+    @Test
+    public void delayBetweenTicks() {
+        advance();
+        delayedChain().execute();
+        advance(5);
+        assertEquals("[start at 1, 1 at 2, 1+2 at 4]", this.ran.toString());
+    }
+
+    @Test
+    public void delayAfterAsyncTask() {
+        advance();
+        this.factory.newChain()
+                .async(() -> this.ran.add("async at " + this.tick))
+                .delay(1)
+                .sync(() -> this.ran.add("1 at " + this.tick))
+                .execute();
+        advance(3);
+        assertEquals("[async at 1, 1 at 2]", this.ran.toString());
+    }
+
+    private TaskChain<?> delayedChain() {
+        return this.factory.newChain()
+                .sync(() -> this.ran.add("start at " + this.tick))
+                .delay(1)
+                .sync(() -> this.ran.add("1 at " + this.tick))
+                .delay(2)
+                .sync(() -> this.ran.add("1+2 at " + this.tick));
+    }
+
+    private void advance() {
+        this.tick++;
+        this.game.tick();
+    }
+
+    private void advance(int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            advance();
+        }
+    }
+}
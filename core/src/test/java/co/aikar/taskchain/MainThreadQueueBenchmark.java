@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares switching tasks to the main thread through a mocked game scheduler, doing the work the Bukkit scheduler
+ * does for each task scheduled with scheduleSyncDelayedTask, against posting them to a {@link MainThreadQueue}
+ * drained once per tick. Reports the cost of posting a task, and the main thread cost of running it in the tick.
+ *
+ * Not ran as part of the tests. Run the main method with the test classpath, and compare the later rounds,
+ * once both paths are compiled by the JIT.
+ */
+public class MainThreadQueueBenchmark {
+    private static final int TASKS = 100000;
+    private static long sink;
+
+    public static void main(String[] args) {
+        final MockScheduler scheduler = new MockScheduler();
+        final MainThreadQueue queue = new MainThreadQueue();
+        final Runnable task = () -> sink++;
+
+        for (int round = 1; round <= 10; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < TASKS; i++) {
+                scheduler.scheduleSyncDelayedTask(task);
+            }
+            final long schedulerPost = System.nanoTime() - start;
+            start = System.nanoTime();
+            scheduler.heartbeat();
+            final long schedulerTick = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < TASKS; i++) {
+                queue.post(task);
+            }
+            final long queuePost = System.nanoTime() - start;
+            start = System.nanoTime();
+            queue.tick();
+            final long queueTick = System.nanoTime() - start;
+
+            System.out.printf("Round %d: scheduler post %.1f ns, tick %.1f ns; queue post %.1f ns, tick %.1f ns per task%n",
+                    round, schedulerPost / (double) TASKS, schedulerTick / (double) TASKS,
+                    queuePost / (double) TASKS, queueTick / (double) TASKS);
+        }
+        System.out.println("(" + sink + ")");
+    }
+
+    /**
+     * The work the Bukkit scheduler does per task: a task object with an id, registered in a map of running tasks,
+     * and sorted through a priority queue by the next heartbeat, which runs it and removes it from the map
+     */
+    private static final class MockScheduler {
+        private final AtomicInteger ids = new AtomicInteger();
+        private final Map<Integer, MockTask> runners = new ConcurrentHashMap<>();
+        private final Queue<MockTask> incoming = new ConcurrentLinkedQueue<>();
+        private final PriorityQueue<MockTask> pending = new PriorityQueue<>(
+                Comparator.comparingLong((MockTask task) -> task.nextRun).thenComparingInt(task -> task.id));
+        private volatile long currentTick;
+
+        void scheduleSyncDelayedTask(Runnable run) {
+            final MockTask task = new MockTask(run, ids.incrementAndGet(), currentTick + 1);
+            runners.put(task.id, task);
+            incoming.add(task);
+        }
+
+        void heartbeat() {
+            final long tick = ++currentTick;
+            MockTask task;
+            while ((task = incoming.poll()) != null) {
+                pending.add(task);
+            }
+            while (!pending.isEmpty() && pending.peek().nextRun <= tick) {
+                task = pending.poll();
+                task.run.run();
+                runners.remove(task.id);
+            }
+        }
+    }
+
+    private static final class MockTask {
+        private final Runnable run;
+        private final int id;
+        private final long nextRun;
+
+        private MockTask(Runnable run, int id, long nextRun) {
+            this.run = run;
+            this.id = id;
+            this.nextRun = nextRun;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tasks that complete on the thread that ran them are dispatched in a loop, so the stack does not grow with the
+ * length of the chain. Chains run on a thread with a small stack, where recursing per task would overflow.
+ */
+public class StackDepthTest {
+    private static final long STACK_SIZE = 512 * 1024;
+
+    private final TestGameInterface game = TestGameInterface.direct();
+    private final TaskChainFactory factory = new TaskChainFactory(this.game);
+
+    @After
+    public void tearDown() {
+        this.factory.shutdown(1, TimeUnit.SECONDS);
+        this.game.shutdown();
+    }
+
+    @Test
+    public void tenStages() throws Exception {
+        assertEquals(10, runStages(10, false));
+    }
+
+    @Test
+    public void thousandStages() throws Exception {
+        assertEquals(1_000, runStages(1_000, false));
+    }
+
+    @Test
+    public void hundredThousandStages() throws Exception {
+        assertEquals(100_000, runStages(100_000, false));
+    }
+
+    @Test
+    public void hundredThousandInlineCallbacks() throws Exception {
+        assertEquals(100_000, runStages(100_000, true));
+    }
+
+    /**
+     * Runs a chain of sync and current stages that each add 1, returning the result of the chain
+     */
+    private int runStages(int stages, boolean callbacks) throws Exception {
+        final AtomicReference<Integer> result = new AtomicReference<>();
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final Thread thread = new Thread(null, () -> {
+            try {
+                TaskChain<Integer> chain = this.factory.newChain().currentFirst(() -> 0);
+                for (int i = 0; i < stages; i++) {
+                    if (callbacks) {
+                        chain = chain.currentCallback((Integer value, Consumer<Integer> next) -> next.accept(value + 1));
+                    } else if (i % 2 == 0) {
+                        chain = chain.sync(value -> value + 1);
+                    } else {
+                        chain = chain.current(value -> value + 1);
+                    }
+                }
+                chain.currentLast(result::set).execute();
+            } catch (Throwable e) {
+                error.set(e);
+            }
+        }, "TaskChain Stack Depth Test", STACK_SIZE);
+        thread.start();
+        thread.join();
+        assertNull("The chain must not overflow the stack", error.get());
+        return result.get();
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A {@link TaskChainAsyncQueue} only treats the threads of a supplied executor as TaskChain threads
+ * while they run tasks posted to the queue
+ */
+public class TaskChainAsyncQueueTest {
+    private final ThreadFactory threadFactory = Thread::new;
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), this.threadFactory);
+
+    @After
+    public void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    public void suppliedExecutorIsLeftUnchanged() throws Exception {
+        final TaskChainAsyncQueue queue = new TaskChainAsyncQueue(this.executor);
+        assertSame(this.threadFactory, this.executor.getThreadFactory());
+
+        final CompletableFuture<Boolean> posted = new CompletableFuture<>();
+        queue.postAsync(() -> posted.complete(TaskChainUtil.isTaskChainThread()));
+        assertTrue(posted.get(10, TimeUnit.SECONDS));
+
+        // The same thread, running a task of the owner of the executor
+        final CompletableFuture<Boolean> direct = new CompletableFuture<>();
+        this.executor.execute(() -> direct.complete(TaskChainUtil.isTaskChainThread()));
+        assertFalse(direct.get(10, TimeUnit.SECONDS));
+    }
+}
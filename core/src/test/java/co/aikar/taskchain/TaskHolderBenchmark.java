@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Executes chains mixing every kind of task, first, plain, future, callback and last, so the call sites running
+ * the tasks see every task shape, as they do in a plugin using the whole API.
+ *
+ * Not ran as part of the tests. Run the main method with the test classpath, and compare the later rounds,
+ * once the chains are compiled by the JIT.
+ */
+public class TaskHolderBenchmark {
+    private static final int EXECUTIONS = 500000;
+    private static final CompletableFuture<Integer> DONE = CompletableFuture.completedFuture(1);
+    private static long sink;
+
+    public static void main(String[] args) {
+        final TaskChainFactory factory = new TaskChainFactory(TestGameInterface.direct());
+        for (int round = 1; round <= 10; round++) {
+            final long start = System.nanoTime();
+            for (int i = 0; i < EXECUTIONS; i++) {
+                execute(factory, i);
+            }
+            final long time = System.nanoTime() - start;
+            System.out.printf("Round %d: %.1f ns per chain of 8 tasks%n", round, time / (double) EXECUTIONS);
+        }
+        System.out.println("(" + sink + ")");
+        factory.shutdown(1, TimeUnit.SECONDS);
+    }
+
+    private static void execute(TaskChainFactory factory, int seed) {
+        switch (seed & 3) {
+            case 0:
+                factory.newChain()
+                        .currentFirst(() -> seed)
+                        .current((Integer value) -> value + 1)
+                        .currentFuture((Integer value) -> DONE)
+                        .currentCallback((Integer value, Consumer<Integer> next) -> next.accept(value * 2))
+                        .current((Integer value) -> value - 3)
+                        .currentFuture((Integer value) -> CompletableFuture.completedFuture(value + 4))
+                        .current(() -> sink++)
+                        .currentLast(value -> sink++)
+                        .execute();
+                break;
+            case 1:
+                factory.newChain()
+                        .currentFirstCallback((Consumer<Integer> next) -> next.accept(seed))
+                        .currentCallback((Integer value, Consumer<Integer> next) -> next.accept(value + 1))
+                        .current((Integer value) -> value * 5)
+                        .currentFuture((Integer value) -> CompletableFuture.completedFuture(value - 1))
+                        .current((Integer value) -> value ^ 7)
+                        .currentCallback((Integer value, Consumer<Integer> next) -> next.accept(value))
+                        .current((Integer value) -> value + 2)
+                        .currentLast((Integer value) -> sink += value)
+                        .execute();
+                break;
+            case 2:
+                factory.newChain()
+                        .currentFirstFuture(() -> DONE)
+                        .current((Integer value) -> value + seed)
+                        .current((Integer value) -> value * 3)
+                        .currentCallback((Integer value, Consumer<Integer> next) -> next.accept(value))
+                        .currentFuture((Integer value) -> DONE)
+                        .current((Integer value) -> value + 1)
+                        .current((Integer value) -> value & 255)
+                        .currentLast((Integer value) -> sink += value)
+                        .execute();
+                break;
+            default:
+                factory.newChain()
+                        .currentFirst(() -> seed)
+                        .currentFuture((Integer value) -> DONE)
+                        .current((Integer value) -> value + seed)
+                        .currentCallback((Integer value, Consumer<Integer> next) -> next.accept(value - 1))
+                        .current((Integer value) -> value * 7)
+                        .currentFuture((Integer value) -> CompletableFuture.completedFuture(value))
+                        .current((Integer value) -> value >> 1)
+                        .currentLast((Integer value) -> sink += value)
+                        .execute();
+                break;
+        }
+    }
+}
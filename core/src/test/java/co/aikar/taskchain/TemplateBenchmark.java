@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares executing a {@link ChainTemplate} against building the same chain for every execution.
+ *
+ * Not ran as part of the tests. Run the main method with the test classpath, and compare the later rounds,
+ * once both paths are compiled by the JIT.
+ */
+public class TemplateBenchmark {
+    private static final int EXECUTIONS = 1000000;
+    private static long sink;
+
+    public static void main(String[] args) {
+        final TaskChainFactory factory = new TaskChainFactory(TestGameInterface.direct());
+        final ChainTemplate<Integer> template = factory.newTemplate((TaskChain<Integer> chain) -> chain
+                .sync((Integer value) -> value + 1)
+                .abortIfNull()
+                .async((Integer value) -> value * 3)
+                .sync((Integer value) -> value - 2)
+                .current((Integer value) -> value ^ 5)
+                .currentLast((Integer value) -> sink += value));
+
+        for (int round = 1; round <= 10; round++) {
+            final long built = timeBuilt(factory);
+            final long executed = timeTemplate(template);
+            System.out.printf("Round %d: new chain %.1f ns, template %.1f ns per execution%n", round,
+                    built / (double) EXECUTIONS, executed / (double) EXECUTIONS);
+        }
+        System.out.println("(" + sink + ")");
+        factory.shutdown(1, TimeUnit.SECONDS);
+    }
+
+    private static long timeBuilt(TaskChainFactory factory) {
+        final long start = System.nanoTime();
+        for (int i = 0; i < EXECUTIONS; i++) {
+            final int seed = i & 127;
+            factory.newChain()
+                    .syncFirst(() -> seed + 1)
+                    .abortIfNull()
+                    .async((Integer value) -> value * 3)
+                    .sync((Integer value) -> value - 2)
+                    .current((Integer value) -> value ^ 5)
+                    .currentLast((Integer value) -> sink += value)
+                    .execute();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long timeTemplate(ChainTemplate<Integer> template) {
+        final long start = System.nanoTime();
+        for (int i = 0; i < EXECUTIONS; i++) {
+            template.execute(i & 127);
+        }
+        return System.nanoTime() - start;
+    }
+}
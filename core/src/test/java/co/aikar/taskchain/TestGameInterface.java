@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A game for tests. Threaded games run a main thread of their own, while direct games treat every thread
+ * as the main thread and run everything posted to them right away, so a whole chain runs on the calling thread.
+ * Ticked games are direct games that queue main thread tasks and delays until the test calls {@link #tick()}.
+ */
+class TestGameInterface implements GameInterface {
+    private final boolean direct;
+    private final AsyncQueue asyncQueue;
+    private final ExecutorService main;
+    private final ScheduledExecutorService scheduler;
+    private final MainThreadQueue mainThreadQueue;
+    private volatile Thread mainThread;
+    /**
+     * Counts the tasks posted off of the main thread
+     */
+    final AtomicInteger asyncPosts = new AtomicInteger();
+    /**
+     * Counts the tasks posted to the main thread
+     */
+    final AtomicInteger mainPosts = new AtomicInteger();
+
+    private TestGameInterface(boolean direct, boolean ticked) {
+        this.direct = direct;
+        this.mainThreadQueue = ticked ? new MainThreadQueue() : null;
+        if (direct) {
+            this.asyncQueue = new DirectAsyncQueue();
+            this.main = null;
+            this.scheduler = null;
+        } else {
+            this.asyncQueue = new TaskChainAsyncQueue();
+            this.main = Executors.newSingleThreadExecutor(r -> this.mainThread = new Thread(r, "Test Main Thread"));
+            this.scheduler = Executors.newSingleThreadScheduledExecutor();
+        }
+    }
+
+    static TestGameInterface threaded() {
+        return new TestGameInterface(false, false);
+    }
+
+    static TestGameInterface direct() {
+        return new TestGameInterface(true, false);
+    }
+
+    static TestGameInterface ticked() {
+        return new TestGameInterface(true, true);
+    }
+
+    @Override
+    public boolean isMainThread() {
+        return this.direct || Thread.currentThread() == this.mainThread;
+    }
+
+    @Override
+    public AsyncQueue getAsyncQueue() {
+        return this.asyncQueue;
+    }
+
+    @Override
+    public void postToMain(Runnable run) {
+        this.mainPosts.incrementAndGet();
+        if (this.mainThreadQueue != null) {
+            this.mainThreadQueue.post(run);
+        } else if (this.direct) {
+            run.run();
+        } else {
+            this.main.execute(run);
+        }
+    }
+
+    @Override
+    public void postAsync(Runnable run) {
+        this.asyncPosts.incrementAndGet();
+        this.asyncQueue.postAsync(run);
+    }
+
+    @Override
+    public void scheduleTask(int gameUnits, Runnable run) {
+        if (this.direct) {
+            run.run();
+        } else {
+            this.scheduler.schedule(() -> this.main.execute(run), gameUnits * 50L, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public MainThreadQueue getMainThreadQueue() {
+        return this.mainThreadQueue;
+    }
+
+    @Override
+    public boolean registerTickHook(Runnable hook) {
+        if (this.mainThreadQueue == null) {
+            return false;
+        }
+        this.mainThreadQueue.setTickHook(hook);
+        return true;
+    }
+
+    @Override
+    public void registerShutdownHandler(TaskChainFactory factory) {
+
+    }
+
+    /**
+     * Runs one game tick of a ticked game
+     */
+    void tick() {
+        this.mainThreadQueue.tick();
+    }
+
+    /**
+     * Stops the main thread of a threaded game, so tasks posted to it are rejected
+     */
+    void stopMainThread() {
+        this.main.shutdownNow();
+    }
+
+    void shutdown() {
+        if (!this.direct) {
+            this.main.shutdownNow();
+            this.scheduler.shutdownNow();
+            this.asyncQueue.shutdown(1, TimeUnit.SECONDS);
+        }
+    }
+
+    private static class DirectAsyncQueue implements AsyncQueue {
+        @Override
+        public void postAsync(Runnable runnable) {
+            runnable.run();
+        }
+
+        @Override
+        public void shutdown(int timeout, TimeUnit unit) {
+
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2016-2017 Daniel Ennis (Aikar) - MIT License
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining
+ *  a copy of this software and associated documentation files (the
+ *  "Software"), to deal in the Software without restriction, including
+ *  without limitation the rights to use, copy, modify, merge, publish,
+ *  distribute, sublicense, and/or sell copies of the Software, and to
+ *  permit persons to whom the Software is furnished to do so, subject to
+ *  the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be
+ *  included in all copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ *  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+ *  MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ *  NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ *  LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ *  OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ *  WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+
+package co.aikar.taskchain;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A wheel advanced by {@link TimingWheel#tick()} counts delays from its last tick, wherever they are scheduled
+ */
+public class TimingWheelTest {
+    private final TimingWheel wheel = new TimingWheel(8);
+    private final List<String> ran = new ArrayList<>();
+    private int tick = 0;
+
+    @Test
+    public void delaysCountFromLastTick() {
+        advance();
+        this.wheel.scheduleTicks(1, () -> this.ran.add("1 at " + this.tick));
+        this.wheel.scheduleTicks(3, () -> this.ran.add("3 at " + this.tick));
+        this.wheel.scheduleTicks(0, () -> this.ran.add("0 at " + this.tick));
+        advance(4);
+        // Tasks due in the same tick run in no particular order
+        Collections.sort(this.ran);
+        assertEquals("[0 at 2, 1 at 2, 3 at 4]", this.ran.toString());
+    }
+
+    @Test
+    public void delaysFromDueTasksCountFromNextTick() {
+        advance();
+        this.wheel.scheduleTicks(1, () -> {
+            this.ran.add("1 at " + this.tick);
+            this.wheel.scheduleTicks(1, () -> this.ran.add("1+1 at " + this.tick));
+            this.wheel.scheduleTicks(2, () -> this.ran.add("1+2 at " + this.tick));
+        });
+        advance(4);
+        assertEquals("[1 at 2, 1+1 at 3, 1+2 at 4]", this.ran.toString());
+    }
+
+    @Test
+    public void delaysLongerThanWheel() {
+        advance();
+        this.wheel.scheduleTicks(20, () -> this.ran.add("20 at " + this.tick));
+        advance(25);
+        assertEquals("[20 at 21]", this.ran.toString());
+    }
+
+    @Test
+    public void shutdownRunsPending() {
+        this.wheel.scheduleTicks(5, () -> this.ran.add("5"));
+        advance();
+        this.wheel.shutdown();
+        assertEquals("[5]", this.ran.toString());
+    }
+
+    @Test
+    public void manyRealTimeDelaysOnAffinityWorkers() throws Exception {
+        // The ticker and the workers
+        assertDelayThreads(new AffinityAsyncQueue(4), 5);
+    }
+
+    @Test
+    public void manyRealTimeDelaysOnGameQueue() throws Exception {
+        // The cached pool of the game grows with a burst of posts, but no thread waits on a delay
+        assertDelayThreads(null, 256);
+    }
+
+    /**
+     * Runs 100,000 chains with a real time delay, checking every chain completes without
+     * starting more than the expected number of threads
+     */
+    private static void assertDelayThreads(AffinityAsyncQueue affinityQueue, int maxThreads) throws Exception {
+        final int chains = 100000;
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        final int threadsBefore = threads.getThreadCount();
+        threads.resetPeakThreadCount();
+        final TestGameInterface game = TestGameInterface.threaded();
+        final TaskChainFactory factory = new TaskChainFactory(game);
+        factory.setAffinityQueue(affinityQueue);
+        try {
+            final CountDownLatch done = new CountDownLatch(chains);
+            for (int i = 0; i < chains; i++) {
+                factory.newChain()
+                        .delay(50, TimeUnit.MILLISECONDS)
+                        .async(() -> {})
+                        .execute(done::countDown);
+            }
+            assertTrue("Not every delayed chain completed", done.await(30, TimeUnit.SECONDS));
+            final int started = threads.getPeakThreadCount() - threadsBefore;
+            assertTrue("Delays started " + started + " threads", started <= maxThreads);
+        } finally {
+            factory.shutdown(1, TimeUnit.SECONDS);
+            game.shutdown();
+        }
+    }
+
+    private void advance() {
+        this.tick++;
+        this.wheel.tick();
+    }
+
+    private void advance(int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            advance();
+        }
+    }
+}
@@ -56,6 +56,7 @@ public class SpongeTaskChainFactory extends TaskChainFactory {
     private static class SpongeGameInterface implements GameInterface {
         private final Object plugin;
         private final AsyncQueue asyncQueue;
+        private final MainThreadQueue mainThreadQueue = new MainThreadQueue();
 
         private SpongeGameInterface(Object plugin, AsyncQueue asyncQueue) {
             this.asyncQueue = asyncQueue;
@@ -63,6 +64,7 @@ public class SpongeTaskChainFactory extends TaskChainFactory {
                 throw new IllegalArgumentException("Not a valid Sponge Plugin");
             }
             this.plugin = plugin;
+            Task.builder().delayTicks(1).intervalTicks(1).execute(mainThreadQueue::tick).submit(plugin);
         }
 
         @Override
@@ -77,7 +79,12 @@ public class SpongeTaskChainFactory extends TaskChainFactory {
 
         @Override
         public void postToMain(Runnable run) {
-            Task.builder().execute(run).submit(plugin);
+            mainThreadQueue.post(run);
+        }
+
+        @Override
+        public MainThreadQueue getMainThreadQueue() {
+            return mainThreadQueue;
         }
 
         @Override
@@ -85,10 +92,17 @@ public class SpongeTaskChainFactory extends TaskChainFactory {
             Task.builder().delayTicks(gameUnits).execute(run).submit(plugin);
         }
 
+        @Override
+        public boolean registerTickHook(Runnable hook) {
+            mainThreadQueue.setTickHook(hook);
+            return true;
+        }
+
         @Override
         public void registerShutdownHandler(TaskChainFactory factory) {
             Sponge.getEventManager().registerListener(plugin, GameStoppingEvent.class, event -> {
                 factory.shutdown(60, TimeUnit.SECONDS);
+                mainThreadQueue.shutdown();
             });
         }
     }